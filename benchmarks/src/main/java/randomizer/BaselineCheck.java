@@ -0,0 +1,165 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a run of the benchmarks with the checked-in baseline and fails if any benchmark got slower by more than
+ * the allowed amount. A benchmark only counts as slower if its score's error range, as reported by JMH, doesn't
+ * overlap the baseline's either, so a noisy benchmark needs a bigger change to fail the check.
+ * <p>
+ * Both files are JMH results written with "-rf csv". A result is matched with the baseline result for the same
+ * benchmark, mode and parameters; results only in one of the files are listed but never fail the check, so the
+ * baseline doesn't have to be rerun whenever a benchmark is added.
+ * <p>
+ * Usage: java -cp benchmarks.jar randomizer.BaselineCheck BASELINE.csv RESULTS.csv [ALLOWED_SLOWDOWN_PERCENT]
+ * <p>
+ * Exits with 0 if nothing got slower than allowed, 1 if something did, and 2 if the files could not be read.
+ * @author Raymond Gillies
+ */
+final class BaselineCheck {
+
+	// Slowdown allowed by default, in percent
+	private static final double DEFAULT_ALLOWED_SLOWDOWN = 20;
+
+	private BaselineCheck() {
+	}
+
+	/**
+	 * One benchmark result.
+	 */
+	private static final class Result {
+		final String mode;
+		final double score;
+		// Half the width of the score's confidence interval; 0 if JMH could not work it out
+		final double error;
+		final String unit;
+
+		Result(String mode, double score, double error, String unit) {
+			this.mode = mode;
+			this.score = score;
+			this.error = error;
+			this.unit = unit;
+		}
+
+		/**
+		 * @return how many times longer this result took than baseline, whatever the mode; above 1 is slower
+		 */
+		double slowdown(Result baseline) {
+			// Throughput is operations per time, so a smaller score is slower; every other mode measures time
+			return mode.equals("thrpt") ? baseline.score / score : score / baseline.score;
+		}
+
+		/**
+		 * @return true if even the best this result could be is worse than the worst the baseline could be
+		 */
+		boolean clearlyWorseThan(Result baseline) {
+			if(mode.equals("thrpt")) return score + error < baseline.score - baseline.error;
+			return score - error > baseline.score + baseline.error;
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 2 || args.length > 3) {
+			System.err.println("Usage: java randomizer.BaselineCheck BASELINE.csv RESULTS.csv [ALLOWED_SLOWDOWN_PERCENT]");
+			System.exit(2);
+		}
+		double allowed;
+		LinkedHashMap<String, Result> baseline;
+		LinkedHashMap<String, Result> results;
+		try {
+			allowed = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_ALLOWED_SLOWDOWN;
+			baseline = read(Path.of(args[0]));
+			results = read(Path.of(args[1]));
+		} catch(IOException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+
+		int slower = 0;
+		for(Map.Entry<String, Result> entry : results.entrySet()) {
+			Result now = entry.getValue();
+			Result then = baseline.get(entry.getKey());
+			if(then == null) {
+				System.out.printf("NEW      %s: %.3f %s%n", entry.getKey(), now.score, now.unit);
+				continue;
+			}
+			if(!then.unit.equals(now.unit)) {
+				System.out.printf("SKIPPED  %s: measured in %s, but the baseline is in %s%n", entry.getKey(), now.unit, then.unit);
+				continue;
+			}
+			double change = (now.slowdown(then) - 1) * 100;
+			boolean failed = change > allowed && now.clearlyWorseThan(then);
+			if(failed) slower++;
+			System.out.printf("%-8s %s: %.3f -> %.3f %s (%+.1f%%)%n", failed ? "SLOWER" : "OK", entry.getKey(),
+					then.score, now.score, now.unit, change);
+		}
+		for(String key : baseline.keySet()) {
+			if(!results.containsKey(key)) System.out.println("MISSING  " + key);
+		}
+
+		if(slower > 0) {
+			System.out.printf("%d of %d benchmarks are more than %.0f%% slower than the baseline%n", slower, results.size(), allowed);
+			System.exit(1);
+		}
+		System.out.printf("No benchmark is more than %.0f%% slower than the baseline%n", allowed);
+	}
+
+	/**
+	 * Reads a JMH CSV result file, keying each result by its benchmark, mode and parameters.
+	 * @throws IOException if the file could not be read
+	 * @throws IllegalArgumentException if the file is not a JMH CSV result file
+	 */
+	private static LinkedHashMap<String, Result> read(Path file) throws IOException {
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		if(lines.isEmpty()) throw new IllegalArgumentException(file + " is empty");
+		List<String> header = split(lines.get(0));
+		int benchmark = header.indexOf("Benchmark");
+		int mode = header.indexOf("Mode");
+		int score = header.indexOf("Score");
+		int error = header.indexOf("Score Error (99.9%)");
+		int unit = header.indexOf("Unit");
+		if(benchmark < 0 || mode < 0 || score < 0 || unit < 0) {
+			throw new IllegalArgumentException(file + " is not a JMH result file written with -rf csv");
+		}
+		LinkedHashMap<String, Result> results = new LinkedHashMap<>();
+		for(int i = 1; i < lines.size(); i++) {
+			if(lines.get(i).isBlank()) continue;
+			List<String> row = split(lines.get(i));
+			StringBuilder key = new StringBuilder(row.get(benchmark)).append(" [").append(row.get(mode));
+			for(int column = 0; column < header.size(); column++) {
+				if(header.get(column).startsWith("Param: ") && column < row.size() && !row.get(column).isEmpty()) {
+					key.append(", ").append(header.get(column).substring(7)).append('=').append(row.get(column));
+				}
+			}
+			key.append(']');
+			try {
+				double range = error < 0 || row.get(error).isEmpty() || row.get(error).equals("NaN") ? 0 : Double.parseDouble(row.get(error));
+				results.put(key.toString(), new Result(row.get(mode), Double.parseDouble(row.get(score)), range, row.get(unit)));
+			} catch(NumberFormatException e) {
+				throw new IllegalArgumentException(file + " line " + (i + 1) + " has no score");
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Splits a line of JMH's CSV output, which quotes text but never puts commas or quotes inside it.
+	 */
+	private static List<String> split(String line) {
+		ArrayList<String> fields = new ArrayList<>();
+		for(String field : line.split(",", -1)) {
+			field = field.trim();
+			if(field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) field = field.substring(1, field.length() - 1);
+			fields.add(field);
+		}
+		return fields;
+	}
+}
@@ -0,0 +1,73 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading a saved pool of the given size. load only reads the pool file's directory, the way the program
+ * starts up; loadAll then reads every table, the way a pool is used once all of its tables have been drawn from.
+ * The pool file is written once, before the first run, with the same tables SaveBenchmark saves.
+ * @author Raymond Gillies
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+	// RandomPool looks for its tables under this name
+	private static final String POOL_FILE_NAME = "randomTables.pool";
+
+	@Param({"1", "16", "256", "1024"})
+	int megabytes;
+
+	private Log log;
+	private Path directory;
+
+	@Setup
+	public void writePool() throws IOException {
+		log = new Log();
+		directory = Files.createTempDirectory("load-benchmark");
+		PoolFile.write(directory.resolve(POOL_FILE_NAME),
+				SyntheticTables.pool((long)megabytes << 20, SaveBenchmark.TABLE_SIZE, SaveBenchmark.ENTRY_LENGTH));
+	}
+
+	@TearDown
+	public void deletePool() throws IOException {
+		SyntheticTables.delete(directory);
+	}
+
+	@Benchmark
+	public RandomPool load() throws IOException {
+		RandomPool pool = new RandomPool(log, directory);
+		if(!pool.load()) throw new IOException("The pool could not be loaded");
+		return pool;
+	}
+
+	@Benchmark
+	public long loadAll() throws IOException {
+		RandomPool pool = load();
+		long entries = 0;
+		for(String name : pool.getTableNames()) {
+			entries += pool.getTable(name).size();
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,131 @@
+package randomizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how a running TableServer holds up under load. A number of client threads send the same GET request
+ * over and over, reading each response in full, for a warm-up period and then for a measured period. At the end
+ * it prints the requests per second, the bytes per second and the latency percentiles of the measured period.
+ * <p>
+ * Usage: java -cp benchmarks.jar randomizer.LoadGenerator URL [CLIENTS] [SECONDS] [WARMUP SECONDS]<br>
+ * e.g. java -cp benchmarks.jar randomizer.LoadGenerator "http://127.0.0.1:8080/randomize?table=Monsters:20" 16 30 5
+ * @author Raymond Gillies
+ */
+final class LoadGenerator {
+
+	private final URL url;
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+
+	private LoadGenerator(URL url) {
+		this.url = url;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if(args.length < 1) {
+			System.err.println("Usage: java randomizer.LoadGenerator URL [CLIENTS] [SECONDS] [WARMUP SECONDS]");
+			System.exit(CommandLine.EXIT_USAGE);
+		}
+		URL url = new URL(args[0]);
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+		LoadGenerator generator = new LoadGenerator(url);
+		System.out.println("Warming up for " + warmup + " s with " + clients + " clients...");
+		generator.run(clients, warmup * 1_000_000_000L);
+		generator.errors.set(0);
+		generator.bytes.set(0);
+		System.out.println("Measuring for " + seconds + " s...");
+		long start = System.nanoTime();
+		long[] latencies = generator.run(clients, seconds * 1_000_000_000L);
+		generator.report(latencies, System.nanoTime() - start);
+	}
+
+	/**
+	 * Sends requests from clients threads until duration has passed.
+	 * @param clients the number of requests to have in flight at once
+	 * @param duration how long to send requests for, in nanoseconds
+	 * @return the latency of every successful request, in nanoseconds
+	 */
+	private long[] run(int clients, long duration) throws InterruptedException {
+		long end = System.nanoTime() + duration;
+		long[][] perClient = new long[clients][];
+		Thread[] threads = new Thread[clients];
+		for(int c = 0; c < clients; c++) {
+			int client = c;
+			threads[c] = new Thread(() -> perClient[client] = sendUntil(end), "Load client " + c);
+			threads[c].start();
+		}
+		int total = 0;
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		for(long[] latencies : perClient) {
+			total += latencies.length;
+		}
+		long[] all = new long[total];
+		int at = 0;
+		for(long[] latencies : perClient) {
+			System.arraycopy(latencies, 0, all, at, latencies.length);
+			at += latencies.length;
+		}
+		return all;
+	}
+
+	private long[] sendUntil(long end) {
+		long[] latencies = new long[1024];
+		int count = 0;
+		byte[] buffer = new byte[1 << 16];
+		while(System.nanoTime() < end) {
+			long start = System.nanoTime();
+			try {
+				HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+				int code = connection.getResponseCode();
+				// Reading the body to the end lets the connection be kept alive for the next request
+				try(InputStream in = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+					int read;
+					while(in != null && (read = in.read(buffer)) > 0) {
+						bytes.addAndGet(read);
+					}
+				}
+				if(code != 200) {
+					errors.incrementAndGet();
+					continue;
+				}
+			} catch(IOException e) {
+				errors.incrementAndGet();
+				continue;
+			}
+			if(count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+			latencies[count++] = System.nanoTime() - start;
+		}
+		return Arrays.copyOf(latencies, count);
+	}
+
+	private void report(long[] latencies, long elapsed) {
+		Arrays.sort(latencies);
+		double seconds = elapsed / 1e9;
+		System.out.printf("Requests:   %d ok, %d failed%n", latencies.length, errors.get());
+		System.out.printf("Throughput: %.1f requests/s, %.2f MB/s%n", latencies.length / seconds, bytes.get() / seconds / 1e6);
+		if(latencies.length == 0) return;
+		System.out.printf("Latency:    p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+				percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 99.9),
+				latencies[latencies.length - 1] / 1e6);
+	}
+
+	/**
+	 * @param sorted latencies in ascending order
+	 * @param percent the percentile to find
+	 * @return the latency that percent of requests took no longer than, in milliseconds
+	 */
+	private static double percentile(long[] sorted, double percent) {
+		int index = (int)Math.ceil(percent / 100 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+	}
+}
@@ -0,0 +1,62 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures RandomPool.newTableFromString turning the text typed into the editor into a table, replacing the same
+ * table each time. Nothing is saved, so only splitting the lines, parsing the weights and publishing the table count.
+ * @author Raymond Gillies
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+	private static final int ENTRY_LENGTH = 24;
+
+	@Param({"1000", "100000", "1000000"})
+	int lines;
+
+	@Param({"false", "true"})
+	boolean weighted;
+
+	private Path directory;
+	private RandomPool pool;
+	private String text;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("parse-benchmark");
+		pool = new RandomPool(new Log(), directory);
+		text = SyntheticTables.text(lines, ENTRY_LENGTH, weighted);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		SyntheticTables.delete(directory);
+	}
+
+	@Benchmark
+	public void newTableFromString() {
+		pool.newTableFromString(text, "Parsed");
+	}
+}
@@ -0,0 +1,274 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Checks that a RandomPool stays correct while it is written, saved, compacted and read from many threads at once.
+ * The pool is kept in a temporary folder and given a small cache budget, so tables keep being evicted and read back
+ * from the pool file while compactions replace it.
+ * <p>
+ * Each writer thread owns a set of tables, which it replaces with new generations or deletes at random, keeping
+ * track of what each should now hold. A save thread saves the pool over and over. Reader threads check that:
+ * <ul>
+ * <li>getTableNames never throws or lists a name twice</li>
+ * <li>every table they read is whole: all of its entries belong to one generation, and it has that generation's size</li>
+ * <li>a table never goes back to an older generation once a reader has seen a newer one</li>
+ * </ul>
+ * When the time is up, the pool is checked against what the writers expect, then saved, loaded into a new pool and
+ * checked again, so an update lost in memory or on disk is caught. Last, the journal is filled past the compaction
+ * threshold with a table that is deleted again, so that loading the pool compacts it with every table copied from
+ * the old pool file and none written from memory.
+ * <p>
+ * The build runs a short check in the verify phase. For a longer one, run:
+ * java -cp benchmarks.jar randomizer.PoolStress [WRITERS] [READERS] [SECONDS]
+ * <p>
+ * Exits with 0 if every check passed and 1 if any failed.
+ * @author Raymond Gillies
+ */
+final class PoolStress {
+
+	private static final int TABLES_PER_WRITER = 8;
+	// Entries are padded so that the journal grows past COMPACT_THRESHOLD within a few seconds
+	private static final String PADDING = "-".repeat(40);
+	// RandomPool keeps its journal under this name
+	private static final String JOURNAL_FILE_NAME = "randomTables.journal";
+
+	private final RandomPool pool;
+	private final long end;
+	private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+	private final AtomicLong writes = new AtomicLong();
+	private final AtomicLong deletes = new AtomicLong();
+	private final AtomicLong reads = new AtomicLong();
+	private final AtomicLong saves = new AtomicLong();
+	// The generation each writer last gave each of its tables; negative if it deleted the table
+	private final int[][] expected;
+
+	private PoolStress(RandomPool pool, int writers, long end) {
+		this.pool = pool;
+		this.end = end;
+		expected = new int[writers][TABLES_PER_WRITER];
+		for(int[] tables : expected) {
+			Arrays.fill(tables, -1);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int writers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		Log log = new Log();
+		Path directory = Files.createTempDirectory("pool-stress");
+		int status;
+		try {
+		RandomPool pool = new RandomPool(log, directory);
+			pool.load();
+			pool.setCacheBudget(256 << 10);
+			PoolStress stress = new PoolStress(pool, writers, System.nanoTime() + seconds * 1_000_000_000L);
+			System.out.println("Running " + writers + " writers and " + readers + " readers for " + seconds + " s in " + directory);
+
+			Thread[] threads = new Thread[writers + readers + 1];
+			for(int w = 0; w < writers; w++) {
+				int writer = w;
+				threads[w] = new Thread(() -> stress.write(writer), "Writer " + w);
+			}
+			for(int r = 0; r < readers; r++) {
+				threads[writers + r] = new Thread(stress::read, "Reader " + r);
+			}
+			threads[threads.length - 1] = new Thread(stress::save, "Saver");
+			for(Thread thread : threads) {
+				thread.start();
+			}
+			for(Thread thread : threads) {
+				thread.join();
+			}
+
+			stress.check(pool, "after writing");
+			pool.flush();
+			pool.awaitCompaction();
+			RandomPool reloaded = new RandomPool(log, directory);
+			if(!reloaded.load()) stress.fail("The saved pool could not be loaded");
+			stress.check(reloaded, "after reloading");
+			reloaded.awaitCompaction();
+			stress.checkCopyOnlyCompaction(log, directory);
+			stress.report();
+			status = stress.failures.isEmpty() ? 0 : 1;
+		} finally {
+			try(Stream<Path> files = Files.walk(directory)) {
+				files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+			}
+		}
+		// Only exit once the pool's folder is gone
+		System.exit(status);
+	}
+
+	private static String name(int writer, int table) {
+		return "w" + writer + "-t" + table;
+	}
+
+	/**
+	 * @return the number of entries a table has in the given generation
+	 */
+	private static int size(int table, int generation) {
+		return 1 + (generation * 31 + table * 7) % 400;
+	}
+
+	private static String text(int table, int generation) {
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < size(table, generation); i++) {
+			text.append(generation).append(' ').append(i).append(' ').append(PADDING).append('\n');
+		}
+		return text.toString();
+	}
+
+	private void write(int writer) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int[] generations = new int[TABLES_PER_WRITER];
+		try {
+			while(System.nanoTime() < end) {
+				int table = random.nextInt(TABLES_PER_WRITER);
+				if(random.nextInt(10) == 0) {
+					pool.deleteTable(name(writer, table));
+					expected[writer][table] = -1;
+					deletes.incrementAndGet();
+				} else {
+					int generation = ++generations[table];
+					pool.newTableFromString(text(table, generation), name(writer, table));
+					expected[writer][table] = generation;
+					writes.incrementAndGet();
+				}
+				if(random.nextInt(50) == 0) pool.saveLater();
+			}
+		} catch(RuntimeException e) {
+			fail(Thread.currentThread().getName() + " threw " + e);
+		}
+	}
+
+	private void read() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		HashMap<String, Integer> newest = new HashMap<>();
+		try {
+			while(System.nanoTime() < end) {
+				String[] names = pool.getTableNames();
+				if(new HashSet<>(Arrays.asList(names)).size() != names.length) fail("getTableNames listed a name twice");
+				if(names.length == 0) continue;
+				String name = names[random.nextInt(names.length)];
+				TableSnapshot table = pool.getTable(name);
+				reads.incrementAndGet();
+				// Deleted since the names were listed
+				if(table == null) continue;
+				int index = Integer.parseInt(name.substring(name.indexOf("-t") + 2));
+				int generation = Integer.parseInt(table.get(0).substring(0, table.get(0).indexOf(' ')));
+				if(table.size() != size(index, generation)) {
+					fail(name + " generation " + generation + " has " + table.size() + " entries, not " + size(index, generation));
+				}
+				for(int i = 0; i < table.size(); i++) {
+					if(!table.get(i).equals(generation + " " + i + " " + PADDING)) {
+						fail(name + " generation " + generation + " has a torn entry " + i + ": " + table.get(i));
+						break;
+					}
+				}
+				Integer seen = newest.put(name, generation);
+				if(seen != null && seen > generation) fail(name + " went back from generation " + seen + " to " + generation);
+			}
+		} catch(RuntimeException e) {
+			fail(Thread.currentThread().getName() + " threw " + e);
+		}
+	}
+
+	private void save() {
+		try {
+			while(System.nanoTime() < end) {
+				pool.flush();
+				saves.incrementAndGet();
+				Thread.sleep(5);
+			}
+		} catch(IOException | InterruptedException | RuntimeException e) {
+			fail("Saving threw " + e);
+		}
+	}
+
+	/**
+	 * Checks that pool holds exactly what the writers last wrote.
+	 */
+	private void check(RandomPool pool, String when) {
+		int tables = 0;
+		for(int w = 0; w < expected.length; w++) {
+			for(int t = 0; t < TABLES_PER_WRITER; t++) {
+				String name = name(w, t);
+				TableSnapshot table = pool.getTable(name);
+				int generation = expected[w][t];
+				if(generation < 0) {
+					if(table != null) fail(when + ": " + name + " was deleted but is still there");
+				} else if(table == null) {
+					fail(when + ": " + name + " generation " + generation + " is missing");
+				} else if(!table.get(0).startsWith(generation + " ") || table.size() != size(t, generation)) {
+					fail(when + ": " + name + " should be generation " + generation + " but holds " + table.get(0));
+				} else {
+					tables++;
+				}
+			}
+		}
+		if(pool.getTableNames().length != tables) fail(when + ": the pool holds tables no writer wrote");
+		System.out.println("Checked " + tables + " tables " + when);
+	}
+
+	/**
+	 * Appends a table larger than the compaction threshold and then its deletion straight to the journal, and loads
+	 * the pool so that it compacts. The first time, this moves every table still only in the journal into the pool
+	 * file; the second time there is nothing to write from memory, and every table is copied from the old pool file.
+	 * Each time, checks that the journal was emptied and nothing was lost.
+	 */
+	private void checkCopyOnlyCompaction(Log log, Path directory) throws IOException, InterruptedException {
+		ArrayList<String> entries = new ArrayList<>();
+		for(long bytes = 0; bytes <= RandomPool.COMPACT_THRESHOLD; bytes += PADDING.length()) {
+			entries.add(PADDING);
+		}
+		TableSnapshot deleted = TableSnapshot.of("deleted", entries, null, 1, 0);
+		for(String when : new String[] {"after moving the journal into the pool file", "after a copy-only compaction"}) {
+			PoolJournal journal = new PoolJournal(directory.resolve(JOURNAL_FILE_NAME));
+			journal.append(List.of(deleted), List.of());
+			journal.append(List.of(), List.of(deleted.getName()));
+			journal.close();
+
+			RandomPool pool = new RandomPool(log, directory);
+			if(!pool.load()) {
+				fail("The pool could not be loaded " + when);
+				return;
+			}
+			pool.awaitCompaction();
+			long left = Files.size(directory.resolve(JOURNAL_FILE_NAME));
+			if(left > PoolJournal.HEADER_SIZE) fail(when + ": the compaction left " + left + " bytes in the journal");
+			check(pool, when);
+		}
+		RandomPool reloaded = new RandomPool(log, directory);
+		if(!reloaded.load()) fail("The pool could not be loaded after a copy-only compaction");
+		check(reloaded, "after reloading the copy-only compaction");
+	}
+
+	private void fail(String failure) {
+		failures.add(failure);
+	}
+
+	private void report() {
+		System.out.printf("%d writes, %d deletes, %d saves, %d reads%n", writes.get(), deletes.get(), saves.get(), reads.get());
+		if(failures.isEmpty()) {
+			System.out.println("PASSED");
+		} else {
+			System.out.println("FAILED with " + failures.size() + " problems:");
+			failures.stream().limit(20).forEach(failure -> System.out.println("  " + failure));
+		}
+	}
+}
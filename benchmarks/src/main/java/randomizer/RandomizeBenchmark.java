@@ -0,0 +1,63 @@
+package randomizer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Randomizer.randomize drawing from TABLES tables of tableSize entries each, a tenth of each table's entries
+ * per table. In unified mode the same total number of outputs is drawn from the tables combined, so the two modes do
+ * the same amount of work.
+ * @author Raymond Gillies
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RandomizeBenchmark {
+
+	private static final int TABLES = 4;
+	private static final int ENTRY_LENGTH = 24;
+
+	@Param({"100", "10000", "1000000"})
+	int tableSize;
+
+	@Param({"false", "true"})
+	boolean unified;
+
+	@Param({"true", "false"})
+	boolean repeats;
+
+	private ArrayList<RandomTable> tables;
+	private Randomizer randomizer;
+
+	@Setup
+	public void setUp() {
+		int outputs = Math.max(1, tableSize / 10);
+		tables = new ArrayList<>();
+		for(int t = 0; t < TABLES; t++) {
+			TableSnapshot snapshot = SyntheticTables.table("Table " + t, tableSize, ENTRY_LENGTH, t + 1);
+			// The first row's settings apply to the combined table
+			tables.add(new RandomTable(snapshot, unified && t == 0 ? outputs * TABLES : outputs, repeats));
+		}
+		randomizer = new Randomizer(42);
+	}
+
+	@Benchmark
+	public RandomResult randomize() {
+		return randomizer.randomize(tables, unified);
+	}
+}
@@ -0,0 +1,171 @@
+package randomizer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that drawing weighted entries without repeats always finishes and draws every entry exactly once, even when
+ * the weights are so far apart that adding them together loses the small ones to rounding. Each case draws every
+ * entry of its tables, both combined into one table and from each table alone, on a thread that is given a few
+ * seconds to finish.
+ * <p>
+ * The cases are a weighted table whose one entry outweighs everything else by 10^17, and a few hundred random sets
+ * of tables with weights from 10^-20 to 10^20. Last, the draw after the huge weight is taken is checked to still
+ * pick between what is left by their weights, rather than by whatever rounding left of them.
+ * <p>
+ * Usage: java -cp benchmarks.jar randomizer.SamplerCheck
+ * <p>
+ * Exits with 0 if every check passed and 1 if any failed.
+ * @author Raymond Gillies
+ */
+final class SamplerCheck {
+
+	private static final int RANDOM_CASES = 300;
+	private static final long TIME_LIMIT_MILLIS = 5000;
+
+	private final ArrayList<String> failures = new ArrayList<>();
+	// Set once a case did not finish; it keeps running and slowing the rest down, so no more are started
+	private boolean stuck;
+
+	private SamplerCheck() {
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		SamplerCheck check = new SamplerCheck();
+		check.drawAll("a weight of 10^17 and a plain entry", List.of(table("Huge", 1e17), table("Plain", (double[])null)), 1);
+
+		Random random = new Random(42);
+		for(int c = 0; c < RANDOM_CASES && !check.stuck; c++) {
+			ArrayList<RandomTable> tables = new ArrayList<>();
+			int count = 1 + random.nextInt(4);
+			for(int t = 0; t < count; t++) {
+				int size = 1 + random.nextInt(6);
+				double[] weights = null;
+				if(random.nextBoolean()) {
+					weights = new double[size];
+					for(int i = 0; i < size; i++) {
+						weights[i] = Math.pow(10, random.nextInt(41) - 20);
+					}
+				}
+				tables.add(table("T" + t, size, weights));
+			}
+			check.drawAll("random case " + c, tables, c);
+		}
+		if(!check.stuck) check.checkFairness();
+
+		if(check.failures.isEmpty()) {
+			System.out.println("PASSED");
+			System.exit(0);
+		}
+		System.out.println("FAILED with " + check.failures.size() + " problems:");
+		check.failures.stream().limit(20).forEach(failure -> System.out.println("  " + failure));
+		System.exit(1);
+	}
+
+	private static RandomTable table(String name, double... weights) {
+		return table(name, weights == null ? 1 : weights.length, weights);
+	}
+
+	private static RandomTable table(String name, int size, double[] weights) {
+		ArrayList<String> entries = new ArrayList<>();
+		for(int i = 0; i < size; i++) {
+			entries.add(name + " " + i);
+		}
+		return new RandomTable(TableSnapshot.of(name, entries, weights, 1, 0), size, false);
+	}
+
+	/**
+	 * Draws every entry of tables without repeats, combined and then one table at a time, failing if a draw takes
+	 * too long, repeats an entry or leaves one out.
+	 */
+	private void drawAll(String name, List<RandomTable> tables, long seed) throws InterruptedException {
+		int size = 0;
+		for(RandomTable table : tables) {
+			size += table.size();
+		}
+		int entries = size;
+		within(name + ", combined", () -> {
+			UnionSampler sampler = new UnionSampler(tables, false, entries, new SplittableRandom(seed));
+			HashSet<Long> drawn = new HashSet<>();
+			while(sampler.hasNext()) {
+				long entry = sampler.nextEntry();
+				if(!drawn.add(entry)) {
+					return "drew table " + UnionSampler.tableOf(entry) + " entry " + UnionSampler.entryOf(entry) + " twice";
+				}
+			}
+			return drawn.size() == entries ? null : "drew " + drawn.size() + " of " + entries + " entries";
+		});
+		for(RandomTable table : tables) {
+			if(!table.isWeighted() || stuck) continue;
+			within(name + ", " + table.getTableName() + " alone", () -> {
+				WeightedUniqueSampler sampler = new WeightedUniqueSampler(table.getAliasTable(), new SplittableRandom(seed));
+				HashSet<Integer> drawn = new HashSet<>();
+				while(sampler.hasNext()) {
+					int index = sampler.nextIndex();
+					if(!drawn.add(index)) return "drew entry " + index + " twice";
+				}
+				return drawn.size() == table.size() ? null : "drew " + drawn.size() + " of " + table.size() + " entries";
+			});
+		}
+	}
+
+	private interface Case {
+		/**
+		 * @return what went wrong, or null if nothing did
+		 */
+		String run();
+	}
+
+	/**
+	 * Runs a case on a daemon thread, failing it if it does not finish within TIME_LIMIT_MILLIS.
+	 */
+	private void within(String name, Case test) throws InterruptedException {
+		String[] result = new String[1];
+		boolean[] finished = new boolean[1];
+		Thread thread = new Thread(() -> {
+			try {
+				result[0] = test.run();
+			} catch(RuntimeException e) {
+				result[0] = "threw " + e;
+			}
+			finished[0] = true;
+		}, name);
+		// A case that never finishes is left running until the check exits
+		thread.setDaemon(true);
+		thread.start();
+		thread.join(TIME_LIMIT_MILLIS);
+		if(!finished[0]) {
+			stuck = true;
+			failures.add(name + ": did not finish within " + TIME_LIMIT_MILLIS + " ms");
+		} else if(result[0] != null) {
+			failures.add(name + ": " + result[0]);
+		}
+	}
+
+	/**
+	 * Draws twice from a table of weights 10^17 and 1 combined with a plain entry. The first draw is almost always
+	 * the heavy entry, which leaves the other two with equal weights; adding 1 to 10^17 rounds it away, so this
+	 * fails if the second draw goes by the rounded totals instead of what is really left.
+	 */
+	private void checkFairness() throws InterruptedException {
+		within("fairness after a weight of 10^17", () -> {
+			List<RandomTable> tables = List.of(table("Huge", 1e17, 1), table("Plain", (double[])null));
+			int runs = 4000;
+			int counted = 0;
+			int plain = 0;
+			for(int run = 0; run < runs; run++) {
+				UnionSampler sampler = new UnionSampler(tables, false, 2, new SplittableRandom(run));
+				long first = sampler.nextEntry();
+				if(UnionSampler.tableOf(first) != 0 || UnionSampler.entryOf(first) != 0) continue;
+				counted++;
+				if(UnionSampler.tableOf(sampler.nextEntry()) == 1) plain++;
+			}
+			double share = (double)plain / counted;
+			return share > 0.45 && share < 0.55 ? null
+					: String.format("the plain entry was drawn second %.1f%% of the time, not about 50%%", share * 100);
+		});
+	}
+}
@@ -0,0 +1,73 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures saving a pool of the given size whose tables are all new, into an empty folder: appending every table to
+ * the journal and, for pools larger than the journal's compaction threshold (16 MB), rewriting the pool file. The
+ * save is only counted as done once the pool file has been written.
+ * @author Raymond Gillies
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SaveBenchmark {
+
+	static final int TABLE_SIZE = 4096;
+	static final int ENTRY_LENGTH = 64;
+
+	@Param({"1", "16", "256", "1024"})
+	int megabytes;
+
+	private Log log;
+	private ArrayList<TableSnapshot> tables;
+	private Path directory;
+	private RandomPool pool;
+
+	@Setup(Level.Trial)
+	public void makeTables() throws IOException {
+		log = new Log();
+		tables = SyntheticTables.pool((long)megabytes << 20, TABLE_SIZE, ENTRY_LENGTH);
+	}
+
+	@Setup(Level.Iteration)
+	public void fillPool() throws IOException {
+		directory = Files.createTempDirectory("save-benchmark");
+		pool = new RandomPool(log, directory);
+		pool.load();
+		pool.replaceTables(tables);
+	}
+
+	@TearDown(Level.Iteration)
+	public void deletePool() throws IOException {
+		pool = null;
+		SyntheticTables.delete(directory);
+	}
+
+	@Benchmark
+	public void save() throws IOException, InterruptedException {
+		pool.flush();
+		pool.awaitCompaction();
+	}
+}
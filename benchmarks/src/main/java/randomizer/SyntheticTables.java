@@ -0,0 +1,88 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Makes the tables the benchmarks run on. Every entry is different and the same call always makes the same tables,
+ * so results from different runs can be compared.
+ * @author Raymond Gillies
+ */
+final class SyntheticTables {
+
+	private SyntheticTables() {
+	}
+
+	/**
+	 * @return the text of entry index of a table, which is entryLength characters long (or longer, for very large
+	 * indexes)
+	 */
+	static String entry(int index, int entryLength) {
+		StringBuilder entry = new StringBuilder(entryLength).append("Entry ").append(index).append(' ');
+		while(entry.length() < entryLength) {
+			entry.append((char)('a' + entry.length() % 26));
+		}
+		return entry.toString();
+	}
+
+	/**
+	 * Makes an unweighted table.
+	 * @param name the table's name
+	 * @param size the number of entries
+	 * @param entryLength the length of each entry
+	 * @param version the table's version
+	 * @return the table
+	 */
+	static TableSnapshot table(String name, int size, int entryLength, long version) {
+		String[] entries = new String[size];
+		for(int i = 0; i < size; i++) {
+			entries[i] = entry(i, entryLength);
+		}
+		return new TableSnapshot(name, entries, null, version, 0);
+	}
+
+	/**
+	 * Makes enough tables of tableSize entries to hold about the given amount of text, which is never less than one
+	 * table.
+	 * @param bytes the total size of the entries, in bytes
+	 * @param tableSize the number of entries in each table
+	 * @param entryLength the length of each entry
+	 * @return the tables, named "Table 0", "Table 1" and so on
+	 */
+	static ArrayList<TableSnapshot> pool(long bytes, int tableSize, int entryLength) {
+		long count = Math.max(1, bytes / ((long)tableSize * entryLength));
+		ArrayList<TableSnapshot> tables = new ArrayList<>();
+		for(int t = 0; t < count; t++) {
+			tables.add(table("Table " + t, tableSize, entryLength, t + 1));
+		}
+		return tables;
+	}
+
+	/**
+	 * Makes the text of a table the way it would be typed into the editor, one entry per line. When weighted is
+	 * true, every fourth line is given a weight.
+	 */
+	static String text(int lines, int entryLength, boolean weighted) {
+		StringBuilder text = new StringBuilder(lines * (entryLength + 4));
+		for(int i = 0; i < lines; i++) {
+			text.append(entry(i, entryLength));
+			if(weighted && i % 4 == 0) text.append(" *").append(1 + i % 5);
+			text.append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Deletes a folder and everything in it.
+	 */
+	static void delete(Path directory) throws IOException {
+		if(directory == null || !Files.exists(directory)) return;
+		try(Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+}
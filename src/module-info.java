@@ -1,9 +1,11 @@
-/**
- * @author Raymond Gillies
- *
- */
-module randomizer {
-	requires java.desktop;
-	requires java.datatransfer;
-	requires java.logging;
+/**
+ * @author Raymond Gillies
+ *
+ */
+module randomizer {
+	requires java.desktop;
+	requires java.datatransfer;
+	requires java.logging;
+	requires jdk.httpserver;
+	requires jdk.jfr;
 }
\ No newline at end of file
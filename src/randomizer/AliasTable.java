@@ -0,0 +1,103 @@
+package randomizer;
+
+import java.io.Serializable;
+import java.util.random.RandomGenerator;
+
+/**
+ * A precomputed Vose alias table over a set of entry weights. Building the table costs O(n) once;
+ * after that, every weighted draw costs O(1) no matter how uneven the weights are.
+ * @author Raymond Gillies
+ */
+public class AliasTable implements Serializable {
+	
+	private static final long serialVersionUID = -3021667353862145711L;
+	private final double[] weights;
+	private final double totalWeight;
+	private final double[] probability;
+	private final int[] alias;
+	
+	/**
+	 * Builds an alias table for the passed weights. The array is kept by reference, so it must not be
+	 * changed afterwards.
+	 * @param weights the weight of each entry; every weight must be positive
+	 * @throws IllegalArgumentException if there are no weights or any weight is not positive
+	 */
+	public AliasTable(double[] weights) {
+		int n = weights.length;
+		if(n == 0) throw new IllegalArgumentException("Cannot build an alias table with no entries");
+		double total = 0;
+		for(double w : weights) {
+			if(!(w > 0) || Double.isInfinite(w)) throw new IllegalArgumentException("Invalid weight: " + w);
+			total += w;
+		}
+		this.weights = weights;
+		this.totalWeight = total;
+		this.probability = new double[n];
+		this.alias = new int[n];
+		
+		// Scale weights so that the average is 1, then split them into under-full and over-full columns
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallCount = 0;
+		int largeCount = 0;
+		for(int i = 0; i < n; i++) {
+			scaled[i] = weights[i] * n / total;
+			if(scaled[i] < 1.0) small[smallCount++] = i;
+			else large[largeCount++] = i;
+		}
+		// Top up each under-full column with the remainder of an over-full one
+		while(smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			probability[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+			if(scaled[more] < 1.0) small[smallCount++] = more;
+			else large[largeCount++] = more;
+		}
+		// Whatever is left over is full, give or take rounding error
+		while(largeCount > 0) {
+			int i = large[--largeCount];
+			probability[i] = 1.0;
+			alias[i] = i;
+		}
+		while(smallCount > 0) {
+			int i = small[--smallCount];
+			probability[i] = 1.0;
+			alias[i] = i;
+		}
+	}
+	
+	/**
+	 * Draws an index with probability proportional to its weight.
+	 * @param rand the source of randomness
+	 * @return the drawn index
+	 */
+	public int next(RandomGenerator rand) {
+		int column = rand.nextInt(probability.length);
+		return rand.nextDouble() < probability[column] ? column : alias[column];
+	}
+	
+	/**
+	 * @return the number of entries in this table
+	 */
+	public int size() {
+		return weights.length;
+	}
+	
+	/**
+	 * @param index index of the entry
+	 * @return the weight of the entry at the passed index
+	 */
+	public double getWeight(int index) {
+		return weights[index];
+	}
+	
+	/**
+	 * @return the sum of every entry's weight
+	 */
+	public double getTotalWeight() {
+		return totalWeight;
+	}
+}
@@ -0,0 +1,298 @@
+package randomizer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs the randomizer without a window, so that it can be used from scripts and scheduled jobs. Outputs are drawn
+ * one at a time and written straight to standard output or a file, so memory use does not grow with the number of
+ * outputs. Run with --help for usage.
+ * @author Raymond Gillies
+ */
+final class CommandLine {
+
+	static final int EXIT_OK = 0;
+	static final int EXIT_FAILED = 1;
+	static final int EXIT_USAGE = 2;
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: randomizer [options] TABLE[:COUNT[:r]]...",
+			"",
+			"Draws COUNT outputs (default 1) from each TABLE in the pool in the current directory. Add :r to allow",
+			"repeats, e.g. \"Monsters:20:r\". Outputs are written one per line.",
+			"",
+			"Options:",
+			"  -u, --unified          combine the tables into one; the first table's COUNT and :r apply to it",
+			"  -s, --seed N           seed to draw with, to repeat an earlier run (default: a new random seed)",
+			"  -a, --algorithm NAME   random number algorithm (default: " + Randomizer.DEFAULT_ALGORITHM + ")",
+			"  -o, --output FILE      write to FILE instead of standard output",
+			"  -f, --format FORMAT    text (default) or csv",
+			"  -q, --quiet            do not print the seed to standard error",
+			"  -l, --list             list the tables in the pool and their sizes, then exit",
+			"      --serve PORT       answer requests for outputs over HTTP on localhost until stopped (see TableServer)",
+			"      --max-outputs N    with --serve, refuse requests for more than N outputs (default: " + TableServer.DEFAULT_MAX_OUTPUTS + ")",
+			"  -h, --help             show this message, then exit");
+
+	private CommandLine() {}
+
+	/**
+	 * Thrown when the command line, or a request to the TableServer, can't be understood. Its message says why.
+	 */
+	@SuppressWarnings("serial")
+	static class UsageException extends Exception {
+		UsageException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Runs the command line given in args.
+	 * @param args the program's arguments
+	 * @param log the log to write to
+	 * @return the exit status: EXIT_OK on success, EXIT_USAGE if args are invalid, or EXIT_FAILED if something else went wrong
+	 */
+	static int run(String[] args, Log log) {
+		PrintStream err = System.err;
+		boolean unified = false;
+		boolean quiet = false;
+		boolean list = false;
+		int port = -1;
+		int maxOutputs = TableServer.DEFAULT_MAX_OUTPUTS;
+		Long seed = null;
+		String algorithm = Randomizer.DEFAULT_ALGORITHM;
+		Path output = null;
+		ResultExporter.Format format = ResultExporter.Format.TEXT;
+		ArrayList<String> specs = new ArrayList<>();
+
+		try {
+			for(int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				switch(arg) {
+				case "-u": case "--unified":
+					unified = true;
+					break;
+				case "-s": case "--seed":
+					String seedText = value(args, ++i, arg);
+					try {
+						seed = Long.parseLong(seedText);
+					} catch(NumberFormatException e) {
+						throw new UsageException("The seed must be a whole number: " + seedText);
+					}
+					break;
+				case "-a": case "--algorithm":
+					algorithm = value(args, ++i, arg);
+					break;
+				case "-o": case "--output":
+					output = Path.of(value(args, ++i, arg));
+					break;
+				case "-f": case "--format":
+					String formatText = value(args, ++i, arg);
+					try {
+						format = ResultExporter.Format.valueOf(formatText.toUpperCase(Locale.ROOT));
+					} catch(IllegalArgumentException e) {
+						throw new UsageException("Unknown format: " + formatText);
+					}
+					break;
+				case "-q": case "--quiet":
+					quiet = true;
+					break;
+				case "-l": case "--list":
+					list = true;
+					break;
+				case "--serve":
+					String portText = value(args, ++i, arg);
+					try {
+						port = Integer.parseInt(portText);
+					} catch(NumberFormatException e) {
+						port = -1;
+					}
+					if(port < 0 || port > 65535) throw new UsageException("Not a port number: " + portText);
+					break;
+				case "--max-outputs":
+					String maxText = value(args, ++i, arg);
+					try {
+						maxOutputs = Integer.parseInt(maxText);
+					} catch(NumberFormatException e) {
+						maxOutputs = 0;
+					}
+					if(maxOutputs < 1) throw new UsageException("The most outputs must be a positive whole number: " + maxText);
+					break;
+				case "-h": case "--help":
+					System.out.println(USAGE);
+					return EXIT_OK;
+				case "--":
+					specs.addAll(Arrays.asList(args).subList(i + 1, args.length));
+					i = args.length;
+					break;
+				default:
+					if(arg.startsWith("-") && arg.length() > 1) throw new UsageException("Unknown option: " + arg);
+					specs.add(arg);
+				}
+			}
+			if(!list && port < 0 && specs.isEmpty()) throw new UsageException("No tables given");
+		} catch(UsageException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return EXIT_USAGE;
+		}
+
+		RandomPool pool = new RandomPool(log);
+		if(!pool.load()) {
+			err.println("No tables could be loaded from the current directory");
+			return EXIT_FAILED;
+		}
+		if(list) {
+			String[] names = pool.getTableNames();
+			Arrays.sort(names);
+			for(String name : names) {
+				System.out.println(name + "\t" + pool.getTableSize(name));
+			}
+			return EXIT_OK;
+		}
+		if(port >= 0) return serve(pool, log, port, maxOutputs);
+
+		ArrayList<RandomTable> tables = new ArrayList<>();
+		Randomizer rand;
+		try {
+			for(String spec : specs) {
+				tables.add(parseTable(spec, pool));
+			}
+			checkCounts(tables, unified);
+			if(seed == null) seed = ThreadLocalRandom.current().nextLong();
+			try {
+				rand = new Randomizer(algorithm, seed);
+			} catch(IllegalArgumentException e) {
+				throw new UsageException("Unknown algorithm: " + algorithm);
+			}
+		} catch(UsageException e) {
+			err.println(e.getMessage());
+			return EXIT_USAGE;
+		}
+		if(!quiet) err.println("Seed: " + seed);
+
+		try {
+			if(output == null) {
+				// Left open, since closing it would close standard output
+				FileChannel out = new FileOutputStream(FileDescriptor.out).getChannel();
+				new ResultExporter().export(rand.stream(tables, unified).iterator(), out, format);
+			} else {
+				boolean written = false;
+				try(FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+					new ResultExporter().export(rand.stream(tables, unified).iterator(), out, format);
+					written = true;
+				} finally {
+					if(!written) Files.deleteIfExists(output);
+				}
+			}
+		} catch(IOException | RuntimeException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			err.println("Could not write the outputs: " + e.getMessage());
+			return EXIT_FAILED;
+		}
+		return EXIT_OK;
+	}
+
+	/**
+	 * Serves the pool over HTTP on the loopback address until the program is stopped.
+	 * @param maxOutputs the most outputs one request may ask for
+	 * @return the exit status
+	 */
+	private static int serve(RandomPool pool, Log log, int port, int maxOutputs) {
+		// This process only serves the pool, so every HttpServer in it can have TCP_NODELAY
+		if(System.getProperty(TableServer.NO_DELAY_PROPERTY) == null) System.setProperty(TableServer.NO_DELAY_PROPERTY, "true");
+		TableServer server;
+		try {
+			server = new TableServer(pool, log, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxOutputs);
+		} catch(IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			System.err.println("Could not start the server: " + e.getMessage());
+			return EXIT_FAILED;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "Stop server"));
+		server.start();
+		System.err.println("Serving on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/");
+		try {
+			server.awaitStop();
+		} catch(InterruptedException e) {
+			server.stop(0);
+		}
+		return EXIT_OK;
+	}
+
+	/**
+	 * @return the value given for the option at args[index - 1]
+	 * @throws UsageException if the option is the last argument
+	 */
+	private static String value(String[] args, int index, String option) throws UsageException {
+		if(index >= args.length) throw new UsageException(option + " needs a value");
+		return args[index];
+	}
+
+	/**
+	 * Turns "NAME", "NAME:COUNT" or "NAME:COUNT:r" into a RandomTable. The count and flag are read from the end,
+	 * so a table whose name holds a colon can still be named, as long as a count is given.
+	 * @param spec the table as given on the command line
+	 * @param pool the pool to read the table from
+	 * @return the table with its settings
+	 * @throws UsageException if the table does not exist or the count is not valid
+	 */
+	static RandomTable parseTable(String spec, RandomPool pool) throws UsageException {
+		String name = spec;
+		int count = 1;
+		boolean canRepeat = false;
+		int colon = name.lastIndexOf(':');
+		if(colon >= 0 && name.substring(colon + 1).equalsIgnoreCase("r")) {
+			canRepeat = true;
+			name = name.substring(0, colon);
+			colon = name.lastIndexOf(':');
+		}
+		if(colon >= 0 && !pool.has(name) && name.substring(colon + 1).matches("\\d+")) {
+			try {
+				count = Integer.parseInt(name.substring(colon + 1));
+			} catch(NumberFormatException e) {
+				throw new UsageException("Too many outputs: " + spec);
+			}
+			name = name.substring(0, colon);
+		}
+		if(!pool.has(name)) throw new UsageException("No table named '" + name + "'");
+		TableSnapshot snapshot = pool.getTable(name);
+		return new RandomTable(snapshot, count, canRepeat);
+	}
+
+	/**
+	 * Checks that no table is asked for more outputs than it has entries, unless repeats are allowed.
+	 * @throws UsageException if a table is asked for too many outputs
+	 */
+	static void checkCounts(ArrayList<RandomTable> tables, boolean unified) throws UsageException {
+		if(unified) {
+			RandomTable first = tables.get(0);
+			long unionSize = 0;
+			for(RandomTable table : tables) {
+				unionSize += table.size();
+			}
+			if(!first.canRepeat() && first.getNumOutputs() > unionSize) {
+				throw new UsageException("The combined tables only have " + unionSize + " entries; add :r to the first table to allow repeats");
+			}
+		} else {
+			for(RandomTable table : tables) {
+				if(!table.canRepeat() && table.getNumOutputs() > table.size()) {
+					throw new UsageException("'" + table.getTableName() + "' only has " + table.size()
+							+ " entries; add :r to allow repeats");
+				}
+			}
+		}
+	}
+}
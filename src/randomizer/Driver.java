@@ -1,58 +1,83 @@
-package randomizer;
-
-import java.io.IOException;
-
-import javax.swing.SwingUtilities;
-import javax.swing.UIManager;
-import javax.swing.UnsupportedLookAndFeelException;
-
-import randomizer.ui.MainWindow;
-
-/**
- * The main executable for the Randomizer program. Sets the look and feel, attempts to generate a log,
- * then launches the main window
- * @author Raymond Gillies
- *
- */
-public class Driver {
-	
-	public static void main(String[] args) {
-		
-		// Generate log
-		Log log;
-		try {
-			log = new Log();
-		} catch(IOException e) {
-			return;
-		}
-		log.writeToLog("Log created");
-		
-		RandomPool tables = new RandomPool(log);
-		
-		tables.load();
-		
-		// Set look and feel to system default
-		try {
-			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException
-				| UnsupportedLookAndFeelException e) {
-			if(log.isEnabled()) e.printStackTrace(log.getWriter());
-		}
-		
-		// Genereate main window
-		MainWindow ui = new MainWindow(tables, log);
-		
-		log.writeToLog("Tables found:");
-		for(String str : tables.getTableNames()) {
-			log.writeToLog(str);
-		}
-		
-		// Display main window on EVT
-		SwingUtilities.invokeLater(ui);
-
-		log.writeToLog("End of driver reached");
-		
-		tables.save();
-		
-	}
+package randomizer;
+
+import java.io.IOException;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
+
+import randomizer.ui.MainWindow;
+
+/**
+ * The main executable for the Randomizer program. Sets the look and feel, attempts to generate a log,
+ * then launches the main window. If any arguments are given, the program runs from the command line instead
+ * (see CommandLine) and no window is shown. The window is shown straight away in a loading state while the tables
+ * are loaded on this thread, and is filled in once they have been.
+ * @author Raymond Gillies
+ *
+ */
+public class Driver {
+	
+	public static void main(String[] args) {
+		StartupTimer timer = new StartupTimer();
+		
+		// Generate log
+		Log log;
+		try {
+			log = new Log();
+		} catch(IOException e) {
+			return;
+		}
+		log.writeToLog("Log created");
+		timer.mark("created log");
+		
+		// Any arguments mean the program is being run from a script, so no window is shown
+		if(args.length > 0) {
+			int status = CommandLine.run(args, log);
+			log.closeBuffer();
+			System.exit(status);
+		}
+		
+		RandomPool tables = new RandomPool(log);
+		// Edits are saved in the background, so write out any that are still waiting when the program exits
+		Runtime.getRuntime().addShutdownHook(new Thread(tables::save, "Save on exit"));
+		
+		// Set look and feel to system default
+		try {
+			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException
+				| UnsupportedLookAndFeelException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+		}
+		timer.mark("set look and feel");
+		
+		// Genereate main window
+		MainWindow ui = new MainWindow(tables, log);
+		timer.mark("built main window");
+		
+		// Display main window on EVT, showing that the tables are still loading
+		SwingUtilities.invokeLater(() -> {
+			ui.setLoading(true);
+			ui.run();
+			timer.mark("showed main window");
+		});
+		
+		// Load the tables while the window is being shown
+		tables.load(timer);
+		timer.mark("loaded pool");
+		
+		log.writeToLog("Tables found:");
+		for(String str : tables.getTableNames()) {
+			log.writeToLog(str);
+		}
+		
+		SwingUtilities.invokeLater(() -> {
+			ui.setLoading(false);
+			timer.mark("filled in panels");
+			timer.report(log);
+		});
+
+		log.writeToLog("End of driver reached");
+		
+	}
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package randomizer;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for each job the editor tab runs in the background, such as saving or importing a table. A job that asks
+ * the user something, such as whether to overwrite a table, includes the time spent waiting for the answer.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.EditorJob")
+@Label("Editor Job")
+public final class EditorJobEvent extends RandomizerEvent {
+
+	@Label("Job")
+	String job;
+
+	@Label("Succeeded")
+	boolean succeeded;
+
+	/**
+	 * Makes an event for a job that is about to start. Call begin() when it does.
+	 * @param job the kind of job
+	 */
+	public EditorJobEvent(String job) {
+		super(Metrics.Operation.EDITOR_JOB);
+		this.job = job;
+	}
+
+	/**
+	 * Records the job.
+	 * @param succeeded false if the job ended by throwing an exception
+	 */
+	public void finish(boolean succeeded) {
+		this.succeeded = succeeded;
+		finish(0);
+	}
+}
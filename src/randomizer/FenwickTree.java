@@ -0,0 +1,68 @@
+package randomizer;
+
+/**
+ * A Fenwick (binary indexed) tree of non-negative weights. Supports changing a weight, summing a prefix
+ * and finding the index at a running total, each in O(log n).
+ * @author Raymond Gillies
+ */
+class FenwickTree {
+	
+	private final double[] tree;
+	
+	/**
+	 * Builds a tree over the passed weights in O(n). The array is not kept.
+	 * @param weights the starting weight of each index
+	 */
+	FenwickTree(double[] weights) {
+		int n = weights.length;
+		tree = new double[n + 1];
+		for(int i = 1; i <= n; i++) {
+			tree[i] += weights[i - 1];
+			// Push each node's sum up to its parent
+			int parent = i + (i & -i);
+			if(parent <= n) tree[parent] += tree[i];
+		}
+	}
+	
+	/**
+	 * @return the number of indices in this tree
+	 */
+	int size() {
+		return tree.length - 1;
+	}
+	
+	/**
+	 * Adds delta to the weight at the passed index.
+	 */
+	void add(int index, double delta) {
+		for(int i = index + 1; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+	
+	/**
+	 * @return the sum of the weights of the first count indices
+	 */
+	double prefixSum(int count) {
+		double sum = 0;
+		for(int i = count; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+	
+	/**
+	 * @return the first index whose running total of weights is greater than target, or size() if there is none
+	 */
+	int find(double target) {
+		int position = 0;
+		for(int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+			int next = position + step;
+			if(next < tree.length && tree[next] <= target) {
+				position = next;
+				target -= tree[next];
+			}
+		}
+		return position;
+	}
+}
@@ -0,0 +1,168 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What happened when a folder of files was imported by RandomPool.importDirectory: how many entries and bytes were
+ * read from each file and how long it took, or why it could not be imported.
+ * @author Raymond Gillies
+ */
+public final class ImportReport {
+
+	private final Path root;
+	private final List<FileResult> files;
+	private final long nanos;
+	private final IOException saveError;
+
+	ImportReport(Path root, List<FileResult> files, long nanos, IOException saveError) {
+		this.root = root;
+		this.files = Collections.unmodifiableList(files);
+		this.nanos = nanos;
+		this.saveError = saveError;
+	}
+
+	/**
+	 * @return the folder that was imported
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return one result for every file that was found, in path order
+	 */
+	public List<FileResult> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @return the number of files that became tables
+	 */
+	public int getImportedCount() {
+		int count = 0;
+		for(FileResult file : files) {
+			if(file.getError() == null) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of files that could not be imported
+	 */
+	public int getFailedCount() {
+		return files.size() - getImportedCount();
+	}
+
+	/**
+	 * @return the total size of the files that became tables, in bytes
+	 */
+	public long getImportedBytes() {
+		long bytes = 0;
+		for(FileResult file : files) {
+			if(file.getError() == null) bytes += file.getBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return how long the whole import took, including saving, in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return why the imported tables could not be saved, or null if they were
+	 */
+	public IOException getSaveError() {
+		return saveError;
+	}
+
+	/**
+	 * Writes a line for every file to the log, giving its throughput or its error, followed by the totals.
+	 * @param log the log to write to
+	 */
+	public void writeTo(Log log) {
+		if(!log.isEnabled()) return;
+		log.writeToLog("Imported " + root + ":");
+		for(FileResult file : files) {
+			if(file.getError() == null) {
+				log.writeToLog(String.format("  %s -> '%s': %d entries, %d bytes in %.1f ms (%.1f MB/s)", file.getFile(),
+						file.getTableName(), file.getEntries(), file.getBytes(), file.getNanos() / 1e6, file.getMegabytesPerSecond()));
+			} else {
+				log.writeToLog("  " + file.getFile() + " failed: " + file.getError());
+			}
+		}
+		log.writeToLog(String.format("  %d imported, %d failed, %d bytes in %.1f ms", getImportedCount(), getFailedCount(),
+				getImportedBytes(), nanos / 1e6));
+		if(saveError != null) log.writeToLog("  Saving failed: " + saveError);
+	}
+
+	/**
+	 * The outcome of importing one file.
+	 */
+	public static final class FileResult {
+
+		private final Path file;
+		private final String tableName;
+		private final int entries;
+		private final long bytes;
+		private final long nanos;
+		private final Exception error;
+
+		FileResult(Path file, String tableName, int entries, long bytes, long nanos, Exception error) {
+			this.file = file;
+			this.tableName = tableName;
+			this.entries = entries;
+			this.bytes = bytes;
+			this.nanos = nanos;
+			this.error = error;
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		public String getTableName() {
+			return tableName;
+		}
+
+		/**
+		 * @return the number of entries read from the file
+		 */
+		public int getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @return the size of the file in bytes
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return how long the file took to read and parse, in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return the rate the file was read and parsed at, in megabytes per second
+		 */
+		public double getMegabytesPerSecond() {
+			return nanos == 0 ? 0 : bytes / (nanos / 1e9) / 1e6;
+		}
+
+		/**
+		 * @return why the file could not be imported, or null if it was
+		 */
+		public Exception getError() {
+			return error;
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package randomizer;
+
+/**
+ * Draws indices of entries from a table, one at a time.
+ * @author Raymond Gillies
+ */
+public interface IndexSampler {
+	
+	/**
+	 * @return true if at least one more index can be drawn, false otherwise
+	 */
+	boolean hasNext();
+	
+	/**
+	 * Draws the next index.
+	 * @return the drawn index
+	 * @throws java.util.NoSuchElementException if no more indices can be drawn
+	 */
+	int nextIndex();
+}
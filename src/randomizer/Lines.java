@@ -0,0 +1,100 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Splits text into the lines that become a table's entries. Lines may end in "\n" or "\r\n", and the line break
+ * is never part of the line. Every line break ends a line, even an empty one, and any text after the last line
+ * break is a line of its own. Both methods make a single pass over the text.
+ * @author Raymond Gillies
+ */
+final class Lines {
+
+	private Lines() {}
+
+	/**
+	 * @param text the text to split
+	 * @return the lines in text
+	 */
+	static ArrayList<String> split(String text) {
+		ArrayList<String> lines = new ArrayList<>();
+		int start = 0;
+		int end;
+		while((end = text.indexOf('\n', start)) >= 0) {
+			int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+			lines.add(text.substring(start, lineEnd));
+			start = end + 1;
+		}
+		if(start < text.length()) lines.add(text.substring(start));
+		return lines;
+	}
+
+	/**
+	 * Splits one line of a CSV file into its fields. Fields may be quoted with '"', in which case they can
+	 * contain commas, and a doubled '"' inside them stands for one.
+	 * @param line the line to split
+	 * @return the fields in line
+	 */
+	static ArrayList<String> csvFields(String line) {
+		ArrayList<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for(int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if(quoted) {
+				if(c != '"') field.append(c);
+				else if(i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+				else quoted = false;
+			} else if(c == '"') {
+				quoted = true;
+			} else if(c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+	
+	/**
+	 * Reads the lines of a UTF-8 text file. The file is memory-mapped and each line is decoded straight from the
+	 * mapping, so the file's text is never held in memory all at once. A leading byte order mark is skipped.
+	 * @param file the file to read
+	 * @return the lines in file
+	 * @throws IOException if the file could not be read, or is too large to map
+	 */
+	static ArrayList<String> read(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE) throw new IOException(file + " is too large to import");
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int limit = (int)size;
+			int start = 0;
+			if(limit >= 3 && data.get(0) == (byte)0xEF && data.get(1) == (byte)0xBB && data.get(2) == (byte)0xBF) start = 3;
+
+			ArrayList<String> lines = new ArrayList<>();
+			byte[] line = new byte[256];
+			for(int i = start; i <= limit; i++) {
+				// '\n' never appears inside a multi-byte UTF-8 character, so it can be searched for byte by byte
+				if(i < limit && data.get(i) != '\n') continue;
+				if(i == limit && i == start) break;
+				int length = i - start;
+				if(i < limit && length > 0 && data.get(i - 1) == '\r') length--;
+				if(length > line.length) line = Arrays.copyOf(line, Math.max(length, line.length * 2));
+				data.get(start, line, 0, length);
+				lines.add(new String(line, 0, length, StandardCharsets.UTF_8));
+				start = i + 1;
+			}
+			return lines;
+		}
+	}
+}
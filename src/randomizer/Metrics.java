@@ -0,0 +1,167 @@
+package randomizer;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often the program's slowest operations run, how long they take and how much they handle, for the
+ * stats tab. The same operations are recorded as JDK Flight Recorder events in the "Randomizer" category, which
+ * also say what each one worked on; see RandomizerEvent. Recording never blocks, so it can be done from any thread.
+ * @author Raymond Gillies
+ */
+public final class Metrics {
+
+	/**
+	 * The operations that are counted.
+	 */
+	public enum Operation {
+		RANDOMIZE("Randomize", "outputs"),
+		POOL_LOAD("Load pool", "bytes"),
+		POOL_SAVE("Save pool", "bytes"),
+		POOL_COMPACT("Compact pool", "bytes"),
+		TABLE_PARSE("Parse table", "entries"),
+		EDITOR_JOB("Editor job", null);
+
+		private final String label;
+		private final String unit;
+
+		Operation(String label, String unit) {
+			this.label = label;
+			this.unit = unit;
+		}
+
+		/**
+		 * @return the operation's name, for showing to the user
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * @return what the operation's amount counts, such as "bytes", or null if it has no amount
+		 */
+		public String getUnit() {
+			return unit;
+		}
+	}
+
+	/**
+	 * What has been recorded for one operation. The figures are read one at a time while other threads may be
+	 * recording, so they can be a single operation apart.
+	 */
+	public static final class Stats {
+
+		private final Operation operation;
+		private final long count;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long amount;
+
+		private Stats(Operation operation, long count, long totalNanos, long maxNanos, long amount) {
+			this.operation = operation;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.amount = amount;
+		}
+
+		public Operation getOperation() {
+			return operation;
+		}
+
+		/**
+		 * @return the number of times the operation has run
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the time all of the runs took together, in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * @return the time the longest run took, in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * @return the average time a run took, in nanoseconds, or 0 if it has not run
+		 */
+		public long getMeanNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		/**
+		 * @return the sum of the amounts all of the runs handled, in the operation's unit
+		 */
+		public long getAmount() {
+			return amount;
+		}
+	}
+
+	/**
+	 * Running totals for one operation.
+	 */
+	private static final class Counter {
+		final LongAdder count = new LongAdder();
+		final LongAdder totalNanos = new LongAdder();
+		final AtomicLong maxNanos = new AtomicLong();
+		final LongAdder amount = new LongAdder();
+	}
+
+	private static final EnumMap<Operation, Counter> COUNTERS = new EnumMap<>(Operation.class);
+
+	static {
+		for(Operation operation : Operation.values()) {
+			COUNTERS.put(operation, new Counter());
+		}
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * Counts one run of an operation.
+	 * @param operation the operation that ran
+	 * @param nanos how long it took
+	 * @param amount how much it handled, in the operation's unit, or 0 if it has none
+	 */
+	static void record(Operation operation, long nanos, long amount) {
+		Counter counter = COUNTERS.get(operation);
+		counter.count.increment();
+		counter.totalNanos.add(nanos);
+		counter.amount.add(amount);
+		long max = counter.maxNanos.get();
+		while(nanos > max && !counter.maxNanos.compareAndSet(max, nanos)) {
+			max = counter.maxNanos.get();
+		}
+	}
+
+	/**
+	 * @param operation the operation to look up
+	 * @return everything recorded for operation since the program started or reset was last called
+	 */
+	public static Stats get(Operation operation) {
+		Counter counter = COUNTERS.get(operation);
+		return new Stats(operation, counter.count.sum(), counter.totalNanos.sum(), counter.maxNanos.get(), counter.amount.sum());
+	}
+
+	/**
+	 * Forgets everything recorded so far. Runs that are recorded while this is going on may be partly forgotten.
+	 */
+	public static void reset() {
+		for(Counter counter : COUNTERS.values()) {
+			counter.count.reset();
+			counter.totalNanos.reset();
+			counter.maxNanos.set(0);
+			counter.amount.reset();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package randomizer;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded each time a RandomPool rewrites its pool file and empties the journal, which happens on a background
+ * thread once the journal grows too large, and when a pool in an older format is loaded.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.PoolCompact")
+@Label("Compact Pool")
+final class PoolCompactEvent extends RandomizerEvent {
+
+	@Label("Tables")
+	int tables;
+
+	@Label("Tables Rewritten")
+	int rewritten;
+
+	@Label("Pool Size")
+	@DataAmount
+	long bytes;
+
+	PoolCompactEvent() {
+		super(Metrics.Operation.POOL_COMPACT);
+	}
+
+	/**
+	 * @param tables the number of tables in the new pool file
+	 * @param rewritten the number of those that were written from memory rather than copied from the old file
+	 * @param bytes the size of the new pool file
+	 */
+	void finish(int tables, int rewritten, long bytes) {
+		this.tables = tables;
+		this.rewritten = rewritten;
+		this.bytes = bytes;
+		finish(bytes);
+	}
+}
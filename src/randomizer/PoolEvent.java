@@ -0,0 +1,65 @@
+package randomizer;
+
+import java.util.EventObject;
+
+/**
+ * Describes one table being added to, removed from or replaced in a RandomPool. Each carries the version of the
+ * table before and after the change, so a listener can tell which snapshot it has is current.
+ * @author Raymond Gillies
+ * @see PoolListener
+ */
+@SuppressWarnings("serial")
+public final class PoolEvent extends EventObject {
+
+	/**
+	 * The kinds of change a table can go through.
+	 */
+	public enum Type {
+		/** A table with a new name was added */
+		ADDED,
+		/** A table was deleted */
+		REMOVED,
+		/** A table was given new contents under the same name */
+		REPLACED
+	}
+
+	private final Type type;
+	private final String tableName;
+	private final long oldVersion;
+	private final long newVersion;
+
+	PoolEvent(RandomPool source, Type type, String tableName, long oldVersion, long newVersion) {
+		super(source);
+		this.type = type;
+		this.tableName = tableName;
+		this.oldVersion = oldVersion;
+		this.newVersion = newVersion;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * @return the version of the table before the change, or 0 if it was just added
+	 */
+	public long getOldVersion() {
+		return oldVersion;
+	}
+
+	/**
+	 * @return the version of the table after the change, or 0 if it was removed
+	 */
+	public long getNewVersion() {
+		return newVersion;
+	}
+
+	@Override
+	public String toString() {
+		return type + " '" + tableName + "' (" + oldVersion + " -> " + newVersion + ")";
+	}
+}
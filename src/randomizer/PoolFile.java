@@ -0,0 +1,421 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes the binary file that a RandomPool is saved in. The layout is:
+ * <pre>
+ * header     magic "RNDP", format version, table count, directory offset and length, directory checksum, header checksum
+ * tables     for each table: every entry as a length-prefixed UTF-8 string, then one double per entry if the table is weighted
+ * directory  for each table: name, offset and length of its data, entry count, flags, a checksum of its data,
+ *            the number of distinct entries and the time it was last modified
+ * </pre>
+ * Files written in format version 1 have no distinct entry count or modification time in their directory; they can
+ * still be read, and readDirectory marks their distinct counts as unknown.
+ * All numbers are big-endian and every checksum is a CRC-32C. Opening a pool only reads its directory; each table's
+ * data is read separately when it is first needed. Reads use positional channel reads rather than memory-mapping, since
+ * a mapped region keeps the file locked on some platforms until it is garbage collected, which would stop a newer
+ * pool file from being moved over it.
+ * @author Raymond Gillies
+ */
+final class PoolFile {
+	
+	static final int MAGIC = 0x524E4450; // "RNDP"
+	static final short FORMAT_VERSION = 2;
+	// Directories written in this version lack the distinct count and modification time
+	static final short FORMAT_VERSION_1 = 1;
+	static final int HEADER_SIZE = 32;
+	
+	private static final byte FLAG_WEIGHTED = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private PoolFile() {}
+	
+	/**
+	 * Where one table's data is kept in a pool file, as recorded in the file's directory.
+	 */
+	static final class Location {
+		
+		final String name;
+		final long offset;
+		final long length;
+		final int entryCount;
+		final boolean weighted;
+		final int checksum;
+		// -1 if the file was written before distinct counts were kept
+		final int distinctCount;
+		final long lastModified;
+		
+		Location(String name, long offset, long length, int entryCount, boolean weighted, int checksum, 
+				int distinctCount, long lastModified) {
+			this.name = name;
+			this.offset = offset;
+			this.length = length;
+			this.entryCount = entryCount;
+			this.weighted = weighted;
+			this.checksum = checksum;
+			this.distinctCount = distinctCount;
+			this.lastModified = lastModified;
+		}
+		
+		/**
+		 * @return the size of the table's entries in UTF-8, worked out from the size of its data
+		 */
+		long textBytes() {
+			return length - (long)entryCount * (Integer.BYTES + (weighted ? Double.BYTES : 0));
+		}
+		
+		/**
+		 * @param version the version the table was given when it was loaded
+		 * @return what the directory says about the table
+		 */
+		TableInfo info(long version) {
+			return new TableInfo(name, version, entryCount, textBytes(), distinctCount, lastModified, weighted);
+		}
+	}
+	
+	/**
+	 * Writes every passed table to file, replacing anything already there, and forces it to disk.
+	 * @param file the file to write
+	 * @param tables the tables to write
+	 * @return where each table was written, in the order they were passed
+	 * @throws IOException if the file could not be written
+	 */
+	static ArrayList<Location> write(Path file, Collection<TableSnapshot> tables) throws IOException {
+		return write(file, tables, null, Collections.emptyList());
+	}
+	
+	/**
+	 * Writes every passed table to file, replacing anything already there, and forces it to disk. Tables that are
+	 * already in another pool file are copied across as they are, without being read into memory.
+	 * @param file the file to write
+	 * @param tables the tables to write from memory
+	 * @param source the pool file to copy the rest of the tables from; may be null if there are none
+	 * @param copied where in source each table to copy is kept
+	 * @return where each table was written: those in tables first, then those in copied, each in the order they were passed
+	 * @throws IOException if the file could not be written, or source could not be read
+	 */
+	static ArrayList<Location> write(Path file, Collection<TableSnapshot> tables, Path source, 
+			Collection<Location> copied) throws IOException {
+		ArrayList<Location> written = new ArrayList<>(tables.size() + copied.size());
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Writer out = new Writer(channel, 0);
+			// The header is filled in last, once the directory's position is known. It is written as zeroes for now
+			// rather than skipped: transferFrom copies nothing to a position past the end of the file, so copying
+			// tables into a file that holds nothing else would fail
+			out.put(new byte[HEADER_SIZE]);
+			out.flush();
+			
+			for(TableSnapshot table : tables) {
+				long offset = out.position();
+				out.startChecksum();
+				writeTableData(out, table);
+				int checksum = out.checksum();
+				written.add(new Location(table.getName(), offset, out.position() - offset, table.size(), 
+						table.isWeighted(), checksum, table.getInfo().getDistinctCount(), table.getLastModified()));
+			}
+			if(!copied.isEmpty()) {
+				try(FileChannel from = FileChannel.open(source, StandardOpenOption.READ)) {
+					for(Location location : copied) {
+						long offset = out.position();
+						from.position(location.offset);
+						long count = 0;
+						while(count < location.length) {
+							long transferred = channel.transferFrom(from, offset + count, location.length - count);
+							if(transferred <= 0) throw new IOException(source + " ended in the middle of table '" + location.name + "'");
+							count += transferred;
+						}
+						out.skip(location.length);
+						written.add(new Location(location.name, offset, location.length, location.entryCount, 
+								location.weighted, location.checksum, location.distinctCount, location.lastModified));
+					}
+				}
+			}
+			
+			long directoryOffset = out.position();
+			out.startChecksum();
+			for(Location location : written) {
+				byte[] name = location.name.getBytes(StandardCharsets.UTF_8);
+				out.putInt(name.length);
+				out.put(name);
+				out.putLong(location.offset);
+				out.putLong(location.length);
+				out.putInt(location.entryCount);
+				out.putByte(location.weighted ? FLAG_WEIGHTED : 0);
+				out.putInt(location.checksum);
+				out.putInt(location.distinctCount);
+				out.putLong(location.lastModified);
+			}
+			int directoryChecksum = out.checksum();
+			long directoryLength = out.position() - directoryOffset;
+			if(directoryLength > Integer.MAX_VALUE) throw new IOException("Too many tables to save");
+			out.flush();
+			
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putShort(FORMAT_VERSION);
+			header.putShort((short)0);
+			header.putInt(written.size());
+			header.putLong(directoryOffset);
+			header.putInt((int)directoryLength);
+			header.putInt(directoryChecksum);
+			header.putInt(checksum(header.array(), HEADER_SIZE - 4));
+			header.flip();
+			while(header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(true);
+		}
+		return written;
+	}
+	
+	/**
+	 * Reads the directory of file, which says where each table is kept, without reading any of the tables.
+	 * @param file the file to read
+	 * @return where each table in the file is kept, in the order they were written
+	 * @throws IOException if the file could not be read, or is not a valid pool file
+	 */
+	static ArrayList<Location> readDirectory(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if(channel.size() < HEADER_SIZE) throw new IOException(file + " is too short to be a pool file");
+			readFully(channel, header, 0);
+			if(header.getInt(0) != MAGIC) throw new IOException(file + " is not a pool file");
+			if(header.getInt(HEADER_SIZE - 4) != checksum(header.array(), HEADER_SIZE - 4)) {
+				throw new IOException(file + " has a corrupt header");
+			}
+			short version = header.getShort(4);
+			if(version != FORMAT_VERSION && version != FORMAT_VERSION_1) {
+				throw new IOException(file + " has unsupported format version " + version);
+			}
+			// The best guess at when the tables in an old file were last changed
+			long fileModified = version == FORMAT_VERSION_1 ? Files.getLastModifiedTime(file).toMillis() : 0;
+			int tableCount = header.getInt(8);
+			long directoryOffset = header.getLong(12);
+			int directoryLength = header.getInt(20);
+			int directoryChecksum = header.getInt(24);
+			
+			ByteBuffer directory = ByteBuffer.allocate(directoryLength);
+			readFully(channel, directory, directoryOffset);
+			if(checksum(directory) != directoryChecksum) throw new IOException(file + " has a corrupt table directory");
+			
+			ArrayList<Location> locations = new ArrayList<>(tableCount);
+			for(int t = 0; t < tableCount; t++) {
+				byte[] nameBytes = new byte[directory.getInt()];
+				directory.get(nameBytes);
+				String name = new String(nameBytes, StandardCharsets.UTF_8);
+				long offset = directory.getLong();
+				long length = directory.getLong();
+				int entryCount = directory.getInt();
+				boolean weighted = (directory.get() & FLAG_WEIGHTED) != 0;
+				int dataChecksum = directory.getInt();
+				int distinctCount = -1;
+				long lastModified = fileModified;
+				if(version != FORMAT_VERSION_1) {
+					distinctCount = directory.getInt();
+					lastModified = directory.getLong();
+				}
+				locations.add(new Location(name, offset, length, entryCount, weighted, dataChecksum, distinctCount, lastModified));
+			}
+			return locations;
+		}
+	}
+	
+	/**
+	 * Reads one table from file.
+	 * @param file the file to read
+	 * @param location where the table is kept in file, as given by readDirectory
+	 * @param version the version number to give the table
+	 * @return the table that was read
+	 * @throws IOException if the table could not be read, or its data is corrupt
+	 */
+	static TableSnapshot readTable(Path file, Location location, long version) throws IOException {
+		if(location.length > Integer.MAX_VALUE) throw new IOException("Table '" + location.name + "' is too large to read");
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer data = ByteBuffer.allocate((int)location.length);
+			readFully(channel, data, location.offset);
+			if(checksum(data) != location.checksum) throw new IOException("Table '" + location.name + "' in " + file + " is corrupt");
+			return readTableData(data, location.name, location.entryCount, location.weighted, version, location.lastModified);
+		}
+	}
+	
+	/**
+	 * Fills buffer from channel, starting at position, and flips it ready to be read.
+	 * @throws IOException if the channel ends before the buffer is full
+	 */
+	static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+		}
+		buffer.flip();
+	}
+	
+	/**
+	 * Writes a table's entries, followed by its weights if it has any.
+	 * @param out where to write the data
+	 * @param table the table to write
+	 * @throws IOException if the data could not be written
+	 */
+	static void writeTableData(Writer out, TableSnapshot table) throws IOException {
+		for(String entry : table) {
+			byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+			out.putInt(bytes.length);
+			out.put(bytes);
+		}
+		if(table.isWeighted()) {
+			for(int i = 0; i < table.size(); i++) {
+				out.putDouble(table.getWeight(i));
+			}
+		}
+	}
+	
+	/**
+	 * Reads a table written by writeTableData, starting at the buffer's position.
+	 * @param data the buffer holding the table's data
+	 * @param name name of the table
+	 * @param entryCount number of entries in the table
+	 * @param weighted whether the entries are followed by weights
+	 * @param version the version number to give the table
+	 * @param lastModified when the table was last changed, in milliseconds since the epoch
+	 * @return the table that was read
+	 */
+	static TableSnapshot readTableData(ByteBuffer data, String name, int entryCount, boolean weighted, long version, 
+			long lastModified) {
+		byte[] scratch = new byte[256];
+		String[] entries = new String[entryCount];
+		for(int i = 0; i < entryCount; i++) {
+			int entryLength = data.getInt();
+			if(entryLength > scratch.length) scratch = new byte[Math.max(entryLength, scratch.length * 2)];
+			data.get(scratch, 0, entryLength);
+			entries[i] = new String(scratch, 0, entryLength, StandardCharsets.UTF_8);
+		}
+		double[] weights = null;
+		if(weighted) {
+			weights = new double[entryCount];
+			data.asDoubleBuffer().get(weights);
+			data.position(data.position() + entryCount * Double.BYTES);
+		}
+		return new TableSnapshot(name, entries, weights, version, lastModified);
+	}
+	
+	static int checksum(byte[] bytes, int length) {
+		CRC32C crc = new CRC32C();
+		crc.update(bytes, 0, length);
+		return (int)crc.getValue();
+	}
+	
+	static int checksum(ByteBuffer buffer) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.duplicate());
+		return (int)crc.getValue();
+	}
+	
+	/**
+	 * Writes to a channel through one reusable buffer, keeping track of the file position and a running checksum.
+	 */
+	static class Writer {
+		
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		private final CRC32C crc = new CRC32C();
+		private long position;
+		
+		/**
+		 * @param channel the channel to write to
+		 * @param position the position in the channel to start writing at
+		 */
+		Writer(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+		
+		long position() {
+			return position;
+		}
+		
+		void skip(long count) throws IOException {
+			flush();
+			position += count;
+		}
+		
+		void startChecksum() throws IOException {
+			flush();
+			crc.reset();
+		}
+		
+		int checksum() throws IOException {
+			flush();
+			return (int)crc.getValue();
+		}
+		
+		void putInt(int value) throws IOException {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+		}
+		
+		void putLong(long value) throws IOException {
+			ensure(Long.BYTES);
+			buffer.putLong(value);
+		}
+		
+		void putDouble(double value) throws IOException {
+			ensure(Double.BYTES);
+			buffer.putDouble(value);
+		}
+		
+		void putByte(byte value) throws IOException {
+			ensure(1);
+			buffer.put(value);
+		}
+		
+		void put(byte[] bytes) throws IOException {
+			int offset = 0;
+			while(offset < bytes.length) {
+				if(!buffer.hasRemaining()) flush();
+				int count = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, count);
+				offset += count;
+			}
+		}
+		
+		/**
+		 * Overwrites an int that has already been written, such as a length that was not known at the time.
+		 * Does not change the running checksum.
+		 */
+		void patchInt(long at, int value) throws IOException {
+			flush();
+			ByteBuffer patch = ByteBuffer.allocate(Integer.BYTES).putInt(value);
+			patch.flip();
+			while(patch.hasRemaining()) {
+				at += channel.write(patch, at);
+			}
+		}
+		
+		private void ensure(int bytes) throws IOException {
+			if(buffer.remaining() < bytes) flush();
+		}
+		
+		/**
+		 * Writes out everything buffered so far, adding it to the running checksum.
+		 */
+		void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			while(buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			buffer.clear();
+		}
+	}
+}
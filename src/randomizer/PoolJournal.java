@@ -0,0 +1,258 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.LongSupplier;
+
+/**
+ * An append-only log of the tables changed since a RandomPool's pool file was last written, so that saving an edit
+ * only writes the table that changed instead of the whole pool. The layout is:
+ * <pre>
+ * header   magic "RNDJ", format version
+ * records  for each change: record length, type (put or delete), table name, and for a put the entry count, flags,
+ *          the time the table was changed and the table's data as PoolFile writes it; then a checksum of the record
+ * </pre>
+ * Puts written before tables kept a modification time have their own record type, and are given the journal's
+ * modification time when they are replayed.
+ * A put carries the whole table and a delete only its name, so replaying a record twice gives the same result as
+ * replaying it once. This lets the pool file be rewritten before the records it now holds are dropped from the journal.
+ * @author Raymond Gillies
+ */
+final class PoolJournal {
+	
+	static final int MAGIC = 0x524E444A; // "RNDJ"
+	static final short FORMAT_VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	
+	// A put without a modification time, as written by earlier versions
+	private static final byte PUT_UNDATED = 1;
+	private static final byte DELETE = 2;
+	private static final byte PUT = 3;
+	private static final byte FLAG_WEIGHTED = 1;
+	
+	private final Path file;
+	private FileChannel channel;
+	
+	/**
+	 * Receives the changes read back from a journal by replay.
+	 */
+	interface Changes {
+		
+		/**
+		 * @param table a table that was added or replaced
+		 */
+		void put(TableSnapshot table);
+		
+		/**
+		 * @param name the name of a table that was deleted
+		 */
+		void delete(String name);
+	}
+	
+	/**
+	 * @param file the journal file. It is not created until something is appended.
+	 */
+	PoolJournal(Path file) {
+		this.file = file;
+	}
+	
+	/**
+	 * @return the size of the journal in bytes, or 0 if it does not exist
+	 * @throws IOException if the size could not be read
+	 */
+	synchronized long size() throws IOException {
+		if(channel != null) return channel.size();
+		return Files.exists(file) ? Files.size(file) : 0;
+	}
+	
+	/**
+	 * Passes every change in the journal to changes, in the order they were written. A record that was only
+	 * partly written, as happens if the program stops in the middle of an append, ends the replay and is
+	 * cut off so that later appends follow the last intact record.
+	 * @param changes receives each change
+	 * @param versions supplies the version number given to each table that is read
+	 * @throws IOException if the journal could not be read, or is not a journal file
+	 */
+	synchronized void replay(Changes changes, LongSupplier versions) throws IOException {
+		if(!Files.exists(file)) return;
+		FileChannel journal = open();
+		long size = journal.size();
+		long fileModified = Files.getLastModifiedTime(file).toMillis();
+		long position = HEADER_SIZE;
+		ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+		while(position + Integer.BYTES <= size) {
+			length.clear();
+			PoolFile.readFully(journal, length, position);
+			int recordLength = length.getInt(0);
+			if(recordLength <= 0 || position + Integer.BYTES + recordLength + Integer.BYTES > size) break;
+			
+			ByteBuffer record = ByteBuffer.allocate(recordLength + Integer.BYTES);
+			PoolFile.readFully(journal, record, position + Integer.BYTES);
+			int checksum = record.getInt(recordLength);
+			record.limit(recordLength);
+			if(PoolFile.checksum(record) != checksum) break;
+			
+			byte type = record.get();
+			byte[] nameBytes = new byte[record.getInt()];
+			record.get(nameBytes);
+			String name = new String(nameBytes, StandardCharsets.UTF_8);
+			if(type == PUT || type == PUT_UNDATED) {
+				int entryCount = record.getInt();
+				boolean weighted = (record.get() & FLAG_WEIGHTED) != 0;
+				long lastModified = type == PUT ? record.getLong() : fileModified;
+				changes.put(PoolFile.readTableData(record, name, entryCount, weighted, versions.getAsLong(), lastModified));
+			} else if(type == DELETE) {
+				changes.delete(name);
+			} else {
+				throw new IOException(file + " has a record of unknown type " + type);
+			}
+			position += Integer.BYTES + recordLength + Integer.BYTES;
+		}
+		if(position < size) journal.truncate(position);
+	}
+	
+	/**
+	 * Appends a put record for every changed table and a delete record for every deleted one, and forces them
+	 * to disk. If anything
+	 * goes wrong the journal is cut back to where it was, so a failed append leaves no partial records behind.
+	 * @param changed tables that were added or replaced
+	 * @param deleted names of tables that were deleted
+	 * @return the number of bytes appended
+	 * @throws IOException if the records could not be written
+	 */
+	synchronized long append(Collection<TableSnapshot> changed, Collection<String> deleted) throws IOException {
+		if(changed.isEmpty() && deleted.isEmpty()) return 0;
+		FileChannel journal = open();
+		long start = journal.size();
+		try {
+			PoolFile.Writer out = new PoolFile.Writer(journal, start);
+			for(TableSnapshot table : changed) {
+				long recordStart = startRecord(out, PUT, table.getName());
+				out.putInt(table.size());
+				out.putByte(table.isWeighted() ? FLAG_WEIGHTED : 0);
+				out.putLong(table.getLastModified());
+				PoolFile.writeTableData(out, table);
+				endRecord(out, recordStart);
+			}
+			for(String name : deleted) {
+				endRecord(out, startRecord(out, DELETE, name));
+			}
+			journal.force(false);
+			return out.position() - start;
+		} catch(IOException | RuntimeException e) {
+			try {
+				journal.truncate(start);
+			} catch(IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Drops the records before upTo, which must be the size the journal had when the tables now in the
+	 * pool file were taken. Anything appended since then is kept.
+	 * @param upTo the position in the journal that the pool file is up to date with
+	 * @throws IOException if the journal could not be rewritten
+	 */
+	synchronized void discard(long upTo) throws IOException {
+		if(!Files.exists(file)) return;
+		FileChannel journal = open();
+		long size = journal.size();
+		if(upTo <= HEADER_SIZE) return;
+		if(upTo >= size) {
+			journal.truncate(HEADER_SIZE);
+			journal.force(false);
+			return;
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(FileChannel rewritten = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeHeader(rewritten);
+			// transferTo writes at the channel's own position, which writing the header did not move
+			rewritten.position(HEADER_SIZE);
+			long position = upTo;
+			while(position < size) {
+				position += journal.transferTo(position, size - position, rewritten);
+			}
+			rewritten.force(false);
+		}
+		close();
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Closes the journal file. It is reopened the next time it is used.
+	 * @throws IOException if the file could not be closed
+	 */
+	synchronized void close() throws IOException {
+		if(channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+	
+	private long startRecord(PoolFile.Writer out, byte type, String name) throws IOException {
+		long recordStart = out.position();
+		// The length is filled in once the record has been written
+		out.putInt(0);
+		out.startChecksum();
+		out.putByte(type);
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		out.putInt(nameBytes.length);
+		out.put(nameBytes);
+		return recordStart;
+	}
+	
+	private void endRecord(PoolFile.Writer out, long recordStart) throws IOException {
+		int checksum = out.checksum();
+		long recordLength = out.position() - recordStart - Integer.BYTES;
+		if(recordLength > Integer.MAX_VALUE - Integer.BYTES) throw new IOException("Table is too large for the journal");
+		out.putInt(checksum);
+		out.patchInt(recordStart, (int)recordLength);
+	}
+	
+	/**
+	 * Opens the journal, creating it if needed, and checks its header.
+	 */
+	private FileChannel open() throws IOException {
+		if(channel != null) return channel;
+		FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if(opened.size() < HEADER_SIZE) {
+				opened.truncate(0);
+				writeHeader(opened);
+			} else {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				PoolFile.readFully(opened, header, 0);
+				if(header.getInt(0) != MAGIC) throw new IOException(file + " is not a journal file");
+				short version = header.getShort(4);
+				if(version != FORMAT_VERSION) throw new IOException(file + " has unsupported format version " + version);
+			}
+		} catch(IOException e) {
+			opened.close();
+			throw e;
+		}
+		channel = opened;
+		return channel;
+	}
+	
+	private static void writeHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(FORMAT_VERSION);
+		header.putShort((short)0);
+		header.flip();
+		while(header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+	}
+}
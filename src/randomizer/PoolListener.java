@@ -0,0 +1,24 @@
+package randomizer;
+
+import java.util.EventListener;
+import java.util.List;
+
+/**
+ * Is told about the tables that are added to, removed from or replaced in a RandomPool.
+ * @author Raymond Gillies
+ * @see RandomPool#addPoolListener(PoolListener)
+ */
+public interface PoolListener extends EventListener {
+
+	/**
+	 * Called after tables in the pool have changed. Every table touched by one change to the pool, such as importing
+	 * a folder or loading the pool, is reported in the same call.
+	 * <p>
+	 * This is called on the thread that changed the pool, while it still holds the pool's lock, so that calls are
+	 * made in the same order as the changes. It should return quickly and must not wait on another thread that
+	 * might be changing the pool; a Swing component should hand the events to the event dispatch thread with
+	 * SwingUtilities.invokeLater.
+	 * @param events what happened to each table, in no particular order
+	 */
+	void tablesChanged(List<PoolEvent> events);
+}
@@ -0,0 +1,42 @@
+package randomizer;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded each time a RandomPool is loaded. Loading only reads the pool file's directory and replays the journal,
+ * so the time taken depends far more on the number of tables and the size of the journal than on the pool's size.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.PoolLoad")
+@Label("Load Pool")
+final class PoolLoadEvent extends RandomizerEvent {
+
+	@Label("Tables")
+	int tables;
+
+	@Label("Pool Size")
+	@DataAmount
+	long bytes;
+
+	@Label("Journal Size")
+	@DataAmount
+	long journalBytes;
+
+	PoolLoadEvent() {
+		super(Metrics.Operation.POOL_LOAD);
+	}
+
+	/**
+	 * @param tables the number of tables loaded
+	 * @param bytes the size of the pool file (or the older file it was loaded from), not counting the journal
+	 * @param journalBytes the size of the journal that was replayed
+	 */
+	void finish(int tables, long bytes, long journalBytes) {
+		this.tables = tables;
+		this.bytes = bytes;
+		this.journalBytes = journalBytes;
+		finish(bytes + journalBytes);
+	}
+}
@@ -0,0 +1,35 @@
+package randomizer;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded each time a RandomPool saves changed tables to its journal. Saves with nothing to save are not recorded.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.PoolSave")
+@Label("Save Pool")
+final class PoolSaveEvent extends RandomizerEvent {
+
+	@Label("Tables Saved")
+	int changed;
+
+	@Label("Tables Deleted")
+	int deleted;
+
+	@Label("Bytes Written")
+	@DataAmount
+	long bytes;
+
+	PoolSaveEvent() {
+		super(Metrics.Operation.POOL_SAVE);
+	}
+
+	void finish(int changed, int deleted, long bytes) {
+		this.changed = changed;
+		this.deleted = deleted;
+		this.bytes = bytes;
+		finish(bytes);
+	}
+}
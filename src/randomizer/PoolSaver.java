@@ -0,0 +1,62 @@
+package randomizer;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Saves a RandomPool on a background thread. A save is started a short while after it is first requested, and
+ * any requests made before it starts are merged into it, so a burst of edits is written out once.
+ * @author Raymond Gillies
+ */
+final class PoolSaver {
+
+	// How long a requested save waits for more edits before it runs
+	static final long DELAY_MILLIS = 250;
+
+	private final RandomPool pool;
+	private final Log log;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "Pool saver");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicBoolean pending = new AtomicBoolean();
+	private volatile Consumer<IOException> errorHandler;
+
+	PoolSaver(RandomPool pool, Log log) {
+		this.pool = pool;
+		this.log = log;
+	}
+
+	/**
+	 * Schedules a save, unless one is already waiting to run.
+	 */
+	void request() {
+		if(pending.compareAndSet(false, true)) {
+			executor.schedule(this::run, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * @param errorHandler called on the saver's thread with the cause of any save that fails, or null for none
+	 */
+	void setErrorHandler(Consumer<IOException> errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	private void run() {
+		// Cleared first so that an edit made while this save runs schedules another one
+		pending.set(false);
+		try {
+			pool.flush();
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			Consumer<IOException> handler = errorHandler;
+			if(handler != null) handler.accept(e);
+		}
+	}
+}
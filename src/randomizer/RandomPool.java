@@ -1,187 +1,883 @@
-package randomizer;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-
-/**
- * Maintains a map that maps ArrayLists to the name given to them by the user. Also handles the creation
- * of said map entries, and the serialization to and from a file to save and load.
- * @author Raymond Gillies
- */
-public class RandomPool {
-
-	private final String SERIAL_FILE_NAME = "randomTables.ser";
-	private HashMap<String, ArrayList<String>> tables = new HashMap<>();
-	private StringBuilder builder;
-	private Log log;
-	
-	RandomPool(Log log) {
-		this.log = log;
-	}
-	
-	/**
-	 * Attempts to create a new RandomTable entry and add it to the list of tables in Randomizer.
-	 * Designed to take input from a JTextArea; decides when to add a new line by the presence
-	 * of a newline character. Ignores blank lines
-	 * @param tableText the text to be turned into a RandomTable
-	 * @param tableName a String representing the name of the table
-	 */
-	public void newTableFromString(String tableText, String tableName) {
-		String temp = ""; 
-		ArrayList<String> newTable = new ArrayList<>();
-		
-		for(int i = 0; i < tableText.length(); i++) {
-			if(tableText.charAt(i) != '\n') {
-				temp += tableText.charAt(i);
-			} else {
-				newTable.add(temp);
-				temp = "";
-			}
-			// Add last line to table, even if newline is not present
-			if(i == tableText.length() - 1 && tableText.charAt(i) != '\n') {
-				newTable.add(temp);
-				temp = "";
-			}
-		}
-		
-		tables.put(tableName , newTable);
-	}
-	
-	/**
-	 * Attempts to serialize the current tables HashMap
-	 * @author Raymond Gillies
-	 * @return true if successfully serialized, false otherwise
-	 */
-	public boolean save() {
-		/*
-		 * Attempt to write to .ser file. If it isn't there, try to make a new file.
-		 * If that doesn't work, print the stack trace and return false.
-		 * (False == failure to save in this case)
-		 * I'm not sure when IOException would be thrown in this case (outer try), so
-		 * let's just print and return false
-		 */
-		try(ObjectOutputStream objOut = new ObjectOutputStream(
-				new FileOutputStream(SERIAL_FILE_NAME));) {
-			objOut.writeObject(tables);
-		} catch (FileNotFoundException e) {
-			try {
-				File newFile = new File(SERIAL_FILE_NAME);
-				newFile.createNewFile();
-			} catch (IOException e1) {
-				if(log.isEnabled()) e1.printStackTrace(log.getWriter());
-				return false;
-			}
-		} catch (IOException e) {
-			if(log.isEnabled()) e.printStackTrace(log.getWriter());
-			return false;
-		}
-		
-		return true;
-	}
-	
-	/**
-	 * Attempts to deserialize the tables HashMap from the file SERIAL_FILE_NAME
-	 * @return true if successfully deserialized, false otherwise
-	 * @author Raymond Gillies
-	 */
-	@SuppressWarnings("unchecked")
-	public boolean load() {
-		try(ObjectInputStream objIn = new ObjectInputStream(new FileInputStream(SERIAL_FILE_NAME));) {
-			tables = (HashMap<String, ArrayList<String>>) objIn.readObject();
-		} catch (FileNotFoundException e) {
-			File newFile = new File(SERIAL_FILE_NAME);
-			try {
-				newFile.createNewFile();
-			} catch (IOException e1) {
-				if(log.isEnabled()) e1.printStackTrace(log.getWriter());
-			}
-			return false;
-		} catch (IOException e) {
-			e.printStackTrace();
-			return false;
-		} catch (ClassNotFoundException e) {
-			// There's a serious problem if this is ever thrown...
-			if(log.isEnabled()) e.printStackTrace(log.getWriter());
-			return false;
-		}
-		return false;
-	}
-	
-	/***
-	 * Returns the text of the passed table as a string with each element
-	 * delimited as a newline (\n)
-	 * @author Raymond Gillies
-	 * @param table the Collection whose elements should be converted to a string
-	 * @return a newline-delimited string representation of the passed RandomTable's elements
-	 */
-	public String textFromTable(Collection<String> table) {
-		builder = new StringBuilder();
-		for(String str : table) {
-			builder.append(str + '\n');
-		}
-	
-		return builder.toString();
-	}
-	
-	/**
-	 * Checks to see if the table name entered already exists.
-	 * @param name table name to search for
-	 * @return true if name already exists, false otherwise
-	 */
-	public boolean has(String name) {
-		if(name == null) return false;
-		return tables.containsKey(name);
-	}
-	
-	/**
-	 * Removes the table at the selected index
-	 * @param index index of table to be deleted
-	 */
-	public void deleteTable(String name) {
-		tables.remove(name);
-	}
-	
-	/**
-	 * Completely clears the list of tables.
-	 * Mostly used for debugging purposes
-	 * @author Raymond Gillies
-	 */
-	public void clear() {
-		tables.clear();
-	}
-	
-	/**
-	 * Returns an array of Strings containing the names of each stored table
-	 * @return an array of stored table names
-	 */
-	public String[] getTableNames() {
-		int index = 0;
-		String[] names = new String[tables.size()];
-		for(String str : tables.keySet()) {
-			names[index++] = str;
-		}
-		return names;
-	}
-	
-	/**
-	 * Checks if there are no tables available for the user to edit / choose from
-	 * @return true if there are no tables, false otherwise
-	 */
-	public boolean isEmpty() {
-		if(tables.isEmpty()) return true;
-		else return false;
-	}
-	
-	@SuppressWarnings("unchecked")
-	public ArrayList<String> getTable(String name) {
-		return (ArrayList<String>)tables.get(name).clone();
-	}
-}
+package randomizer;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Maintains a map that maps tables to the name given to them by the user. Also handles the creation
+ * of said map entries, and saving them to and loading them from a file.
+ * Each table is held as an immutable TableSnapshot. Editing a table publishes a new snapshot with a higher
+ * version number rather than changing the old one, so callers can keep and share snapshots without copying them.
+ * Saving only appends the tables changed since the last save to a journal (see PoolJournal); once the journal
+ * grows past COMPACT_THRESHOLD, the whole pool is rewritten on a background thread and the journal is emptied.
+ * Edits made through the UI are saved with saveLater, which merges bursts of edits into one background save.
+ * Loading only reads the pool file's directory. A table's contents are read the first time getTable asks for it
+ * and kept in an LRU cache with a memory budget (see setCacheBudget); tables that have been edited since the pool
+ * file was written are held in memory until the next compaction writes them to it.
+ * The pool is safe to use from any thread. Reads never lock: the pool's tables are held in a Contents that is never
+ * changed once published, and every change builds a new one under this pool's lock and swaps it in. A reader therefore
+ * sees either all of a change or none of it, however many tables it touches.
+ * Listeners added with addPoolListener are told which tables each change added, removed or replaced.
+ * @author Raymond Gillies
+ */
+public class RandomPool {
+
+	private final String POOL_FILE_NAME = "randomTables.pool";
+	// Pools used to be saved with Java serialization; these are migrated the first time they are loaded
+	private final String LEGACY_FILE_NAME = "randomTables.ser";
+	private final String JOURNAL_FILE_NAME = "randomTables.journal";
+	// Journal size, in bytes, past which the pool file is rewritten and the journal emptied
+	static final long COMPACT_THRESHOLD = 16L << 20;
+	// A line ending in "*N" (N being a positive number) is an entry that is N times as likely as an unweighted one
+	private static final Pattern WEIGHTED_LINE = Pattern.compile("^(.*\\S)\\s+\\*(\\d+(?:\\.\\d+)?)\\s*$");
+	// A line ending the same way but with a backslash before the "*", such as "Goblin \*5", is an entry that really ends
+	// in "*N". One backslash is taken off, so an entry ending in "\*N" is written with two.
+	private static final Pattern ESCAPED_WEIGHT = Pattern.compile("^(.*\\S\\s+)(\\\\*)(\\*\\d+(?:\\.\\d+)?\\s*)$");
+	// Bytes of table contents kept in memory by default; can be set with -Drandomizer.cacheBytes=N
+	private static final long DEFAULT_CACHE_BUDGET = Long.getLong("randomizer.cacheBytes", Runtime.getRuntime().maxMemory() / 4);
+	private final Path poolFile;
+	private final Path legacyFile;
+	// Every table in the pool; replaced as a whole, while holding this pool's lock, whenever a table is changed
+	private volatile Contents contents = new Contents(new HashMap<>(), new HashMap<>());
+	private final TableCache<StoredTable> cache = new TableCache<>(DEFAULT_CACHE_BUDGET);
+	// Held while a table is read from the pool file and while the pool file is replaced, so reads never see a new file
+	// through an old location
+	private final Object fileLock = new Object();
+	private long lastVersion = 0;
+	// Names of tables added, replaced or deleted since the last save
+	private final HashSet<String> unsaved = new HashSet<>();
+	private final PoolJournal journal;
+	private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Pool compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicBoolean compacting = new AtomicBoolean();
+	// Held for the whole of a save, so that saves append their records in the order they took them
+	private final Object saveLock = new Object();
+	private final PoolSaver saver;
+	private final CopyOnWriteArrayList<PoolListener> listeners = new CopyOnWriteArrayList<>();
+	private Log log;
+	
+	RandomPool(Log log) {
+		this(log, Path.of(""));
+	}
+	
+	/**
+	 * Creates a pool that keeps its files in directory rather than the working directory.
+	 * @param log the log to write to
+	 * @param directory the folder holding the pool file and journal
+	 */
+	RandomPool(Log log, Path directory) {
+		this.log = log;
+		this.poolFile = directory.resolve(POOL_FILE_NAME);
+		this.legacyFile = directory.resolve(LEGACY_FILE_NAME);
+		this.journal = new PoolJournal(directory.resolve(JOURNAL_FILE_NAME));
+		this.saver = new PoolSaver(this, log);
+	}
+	
+	/**
+	 * Attempts to create a new RandomTable entry and add it to the list of tables in Randomizer.
+	 * Designed to take input from a JTextArea; decides when to add a new line by the presence
+	 * of a newline character, with a "\r\n" pair counting as one. Ignores blank lines. A line ending in "*N", such as "Goblin *5",
+	 * is stored as the entry "Goblin" with a weight of 5. To store an entry that really ends in "*N", put a backslash
+	 * before the "*": "Goblin \*5" is stored as the entry "Goblin *5" with the default weight.
+	 * @param tableText the text to be turned into a RandomTable
+	 * @param tableName a String representing the name of the table
+	 */
+	public void newTableFromString(String tableText, String tableName) {
+		putTable(tableName, Lines.split(tableText));
+	}
+	
+	/**
+	 * Creates a table from a UTF-8 text file, reading its lines the same way newTableFromString reads its text.
+	 * The file is memory-mapped and split into lines straight from the mapping, so its contents are never
+	 * held as one String.
+	 * @param file the text file to import
+	 * @param tableName a String representing the name of the table
+	 * @throws IOException if the file could not be read
+	 */
+	public void importTable(Path file, String tableName) throws IOException {
+		putTable(tableName, Lines.read(file));
+	}
+	
+	/**
+	 * Imports every .txt and .csv file in root and the folders under it as a table. Files are read and parsed in
+	 * parallel, then every table that was read is added at once and saved with a single save. Each table is named
+	 * after its file's path under root, without the extension and with "/" between folders, and replaces any table
+	 * with that name. A .txt file is read the same way importTable reads it. In a .csv file, each row's first field is
+	 * an entry, and its second field, if it is a positive number, is that entry's weight.
+	 * @param root the folder to import
+	 * @return what was read from each file, how long it took, and anything that went wrong
+	 * @throws IOException if root could not be searched
+	 */
+	public ImportReport importDirectory(Path root) throws IOException {
+		long start = System.nanoTime();
+		ArrayList<Path> files;
+		try(Stream<Path> walk = Files.walk(root)) {
+			files = walk.filter(file -> Files.isRegularFile(file) && importFormat(file) != null).sorted()
+					.collect(Collectors.toCollection(ArrayList::new));
+		}
+		String[] names = new String[files.size()];
+		for(int i = 0; i < names.length; i++) {
+			String name = root.relativize(files.get(i)).toString().replace(root.getFileSystem().getSeparator(), "/");
+			names[i] = name.substring(0, name.lastIndexOf('.'));
+		}
+		long firstVersion;
+		synchronized(this) {
+			firstVersion = lastVersion + 1;
+			lastVersion += files.size();
+		}
+		
+		TableSnapshot[] imported = new TableSnapshot[files.size()];
+		ImportReport.FileResult[] results = new ImportReport.FileResult[files.size()];
+		// Two files can only map to the same name if they differ by extension; the first one in path order wins
+		HashMap<String, Path> claimed = new HashMap<>();
+		boolean[] duplicate = new boolean[files.size()];
+		for(int i = 0; i < names.length; i++) {
+			duplicate[i] = claimed.putIfAbsent(names[i], files.get(i)) != null;
+		}
+		IntStream.range(0, files.size()).parallel().forEach(i -> {
+			Path file = files.get(i);
+			long fileStart = System.nanoTime();
+			long bytes = 0;
+			try {
+				bytes = Files.size(file);
+				if(duplicate[i]) throw new IOException("Has the same table name as " + claimed.get(names[i]));
+				ArrayList<String> lines = Lines.read(file);
+				if(lines.isEmpty()) throw new IOException("Has no entries");
+				imported[i] = importFormat(file).equals("csv") ? parseCsvTable(names[i], lines, firstVersion + i)
+						: parseTable(names[i], lines, firstVersion + i);
+				results[i] = new ImportReport.FileResult(file, names[i], imported[i].size(), bytes, 
+						System.nanoTime() - fileStart, null);
+			} catch (IOException | RuntimeException e) {
+				results[i] = new ImportReport.FileResult(file, names[i], 0, bytes, System.nanoTime() - fileStart, e);
+			}
+		});
+		
+		ArrayList<TableSnapshot> replacements = new ArrayList<>();
+		for(TableSnapshot table : imported) {
+			if(table != null) replacements.add(table);
+		}
+		replaceTables(replacements);
+		IOException saveError = null;
+		try {
+			flush();
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			saveError = e;
+		}
+		ImportReport report = new ImportReport(root, Arrays.asList(results), System.nanoTime() - start, saveError);
+		report.writeTo(log);
+		return report;
+	}
+	
+	/**
+	 * @param file a file that might be imported
+	 * @return "txt" or "csv" if importDirectory imports the file, null otherwise
+	 */
+	private static String importFormat(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if(name.endsWith(".txt")) return "txt";
+		if(name.endsWith(".csv")) return "csv";
+		return null;
+	}
+	
+	/**
+	 * Splits the weights off of the passed lines and stores them as the named table, replacing any table with that name.
+	 * @param tableName name of the table
+	 * @param newTable the table's lines, which are changed in place
+	 */
+	private void putTable(String tableName, ArrayList<String> newTable) {
+		replaceTables(Collections.singletonList(parseTable(tableName, newTable, nextVersion())));
+	}
+	
+	/**
+	 * Takes the next table version. Loading takes versions off the event dispatch thread, while the shutdown hook or
+	 * an edit may be taking them too, so each one is taken under the pool's lock.
+	 * @return a version no other table has been given
+	 */
+	private synchronized long nextVersion() {
+		return ++lastVersion;
+	}
+	
+	/**
+	 * Adds tables, replacing any tables with the same names, and marks them as unsaved. Readers see all of them
+	 * appear at once. The benchmarks use this to fill a pool with tables that were never parsed.
+	 * @param replacements the new tables
+	 */
+	synchronized void replaceTables(Collection<TableSnapshot> replacements) {
+		Contents before = contents;
+		HashMap<String, TableSnapshot> tables = new HashMap<>(before.tables);
+		HashMap<String, StoredTable> stored = new HashMap<>(before.stored);
+		ArrayList<PoolEvent> events = new ArrayList<>(replacements.size());
+		for(TableSnapshot table : replacements) {
+			long oldVersion = before.versionOf(table.getName());
+			tables.put(table.getName(), table);
+			StoredTable old = stored.remove(table.getName());
+			if(old != null) cache.remove(old);
+			unsaved.add(table.getName());
+			events.add(new PoolEvent(this, oldVersion == 0 ? PoolEvent.Type.ADDED : PoolEvent.Type.REPLACED, 
+					table.getName(), oldVersion, table.getVersion()));
+		}
+		contents = new Contents(tables, stored);
+		fire(events);
+	}
+	
+	/**
+	 * Turns lines written the way newTableFromString accepts them into a table, splitting off any weights.
+	 * @param tableName name of the table
+	 * @param newTable the table's lines, which are changed in place
+	 * @param version the version number to give the table
+	 * @return the new table
+	 */
+	private static TableSnapshot parseTable(String tableName, ArrayList<String> newTable, long version) {
+		TableParseEvent event = new TableParseEvent(tableName, "text");
+		event.begin();
+		// Split off any weights
+		double[] newWeights = new double[newTable.size()];
+		boolean weighted = false;
+		for(int i = 0; i < newTable.size(); i++) {
+			newWeights[i] = 1.0;
+			Matcher escaped = ESCAPED_WEIGHT.matcher(newTable.get(i));
+			if(escaped.matches() && !escaped.group(2).isEmpty()) {
+				newTable.set(i, escaped.group(1) + escaped.group(2).substring(1) + escaped.group(3));
+				continue;
+			}
+			Matcher matcher = WEIGHTED_LINE.matcher(newTable.get(i));
+			if(matcher.matches()) {
+				double weight = Double.parseDouble(matcher.group(2));
+				if(weight > 0 && !Double.isInfinite(weight)) {
+					newTable.set(i, matcher.group(1));
+					newWeights[i] = weight;
+					weighted = true;
+				}
+			}
+		}
+		TableSnapshot table = measured(TableSnapshot.of(tableName, newTable, weighted ? newWeights : null, version, System.currentTimeMillis()));
+		event.finish(table);
+		return table;
+	}
+	
+	/**
+	 * Works out a new table's info straight away, on the thread that made it, so that getTableInfo never has to
+	 * go through a table's entries on the event dispatch thread.
+	 * @param table a table that was just made
+	 * @return table
+	 */
+	private static TableSnapshot measured(TableSnapshot table) {
+		table.getInfo();
+		return table;
+	}
+	
+	/**
+	 * Turns the rows of a CSV file into a table. Each row's first field is an entry, and its second field,
+	 * if it is a positive number, is the entry's weight. Any other fields are ignored.
+	 * @param tableName name of the table
+	 * @param rows the rows of the file
+	 * @param version the version number to give the table
+	 * @return the new table
+	 */
+	private static TableSnapshot parseCsvTable(String tableName, ArrayList<String> rows, long version) {
+		TableParseEvent event = new TableParseEvent(tableName, "csv");
+		event.begin();
+		ArrayList<String> entries = new ArrayList<>(rows.size());
+		double[] weights = new double[rows.size()];
+		boolean weighted = false;
+		for(int i = 0; i < rows.size(); i++) {
+			ArrayList<String> fields = Lines.csvFields(rows.get(i));
+			entries.add(fields.get(0));
+			weights[i] = 1.0;
+			if(fields.size() > 1) {
+				try {
+					double weight = Double.parseDouble(fields.get(1).trim());
+					if(weight > 0 && !Double.isInfinite(weight)) {
+						weights[i] = weight;
+						weighted = true;
+					}
+				} catch(NumberFormatException e) {
+					// Not a weight, so the entry keeps the default
+				}
+			}
+		}
+		TableSnapshot table = measured(TableSnapshot.of(tableName, entries, weighted ? weights : null, version, System.currentTimeMillis()));
+		event.finish(table);
+		return table;
+	}
+	
+	/**
+	 * Attempts to save every table added, replaced or deleted since the last save, on the calling thread.
+	 * @author Raymond Gillies
+	 * @return true if successfully saved, false otherwise
+	 */
+	public boolean save() {
+		try {
+			flush();
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Saves every table added, replaced or deleted since the last save on a background thread, shortly after
+	 * this is called. Calls made before that save starts are merged into it.
+	 */
+	public void saveLater() {
+		saver.request();
+	}
+	
+	/**
+	 * Sets what is told about saves made by saveLater that fail. The handler is called on the saving thread.
+	 * @param handler receives the cause of each failed save, or null to only log failures
+	 */
+	public void setSaveErrorHandler(Consumer<IOException> handler) {
+		saver.setErrorHandler(handler);
+	}
+	
+	/**
+	 * Appends every table added, replaced or deleted since the last save to JOURNAL_FILE_NAME and forces it
+	 * to disk. If that leaves the journal larger than COMPACT_THRESHOLD, the pool file is rewritten in the
+	 * background. If the append fails, the tables are kept as unsaved so the next save tries them again.
+	 * @throws IOException if the journal could not be written
+	 */
+	void flush() throws IOException {
+		synchronized(saveLock) {
+			PoolSaveEvent event = new PoolSaveEvent();
+			event.begin();
+			ArrayList<String> names;
+			ArrayList<TableSnapshot> changed = new ArrayList<>();
+			ArrayList<String> deleted = new ArrayList<>();
+			synchronized(this) {
+				Contents current = contents;
+				names = new ArrayList<>(unsaved);
+				unsaved.clear();
+				for(String name : names) {
+					TableSnapshot table = current.tables.get(name);
+					if(table != null) changed.add(table);
+					// A table in stored was written to the pool file by a compaction after it was edited
+					else if(!current.stored.containsKey(name)) deleted.add(name);
+				}
+			}
+			long written;
+			try {
+				written = journal.append(changed, deleted);
+			} catch (IOException | RuntimeException e) {
+				synchronized(this) {
+					unsaved.addAll(names);
+				}
+				throw e;
+			}
+			if(!names.isEmpty()) event.finish(changed.size(), deleted.size(), written);
+			if(journal.size() > COMPACT_THRESHOLD) compactInBackground();
+		}
+	}
+	
+	/**
+	 * Attempts to load the tables from POOL_FILE_NAME, then replays JOURNAL_FILE_NAME over them. If there is no
+	 * pool file yet but a pool saved with Java serialization does exist (LEGACY_FILE_NAME), the old file is read
+	 * instead and immediately saved in the new format; the old file is left in place.
+	 * @return true if successfully loaded, false otherwise
+	 * @author Raymond Gillies
+	 */
+	public boolean load() {
+		return load(null);
+	}
+	
+	/**
+	 * Does the same as load(), marking each step of loading on timer as it finishes.
+	 * Safe to call off the event dispatch thread while the UI is showing; the tables appear all at once when it is done.
+	 * @param timer the timer to mark each step on, or null for none
+	 * @return true if successfully loaded, false otherwise
+	 */
+	public boolean load(StartupTimer timer) {
+		PoolLoadEvent event = new PoolLoadEvent();
+		event.begin();
+		try {
+			long bytes = 0;
+			HashMap<String, TableSnapshot> loaded = new HashMap<>();
+			HashMap<String, StoredTable> found = new HashMap<>();
+			// The file whose tables are all read and rewritten in the current format, if any
+			Path migrate = null;
+			if(Files.exists(poolFile)) {
+				bytes = Files.size(poolFile);
+				for(PoolFile.Location location : PoolFile.readDirectory(poolFile)) {
+					if(location.distinctCount < 0) {
+						// Written before the directory kept distinct counts, which can only be found by reading the table
+						loaded.put(location.name, measured(PoolFile.readTable(poolFile, location, nextVersion())));
+						migrate = poolFile;
+					} else {
+						found.put(location.name, new StoredTable(location, nextVersion()));
+					}
+				}
+				if(timer != null) timer.mark("read pool directory");
+			} else if(Files.exists(legacyFile)) {
+				bytes = Files.size(legacyFile);
+				loaded = loadLegacy(legacyFile);
+				migrate = legacyFile;
+				if(timer != null) timer.mark("read " + LEGACY_FILE_NAME);
+			} else if(journal.size() == 0) {
+				return false;
+			}
+			HashMap<String, TableSnapshot> replayed = loaded;
+			journal.replay(new PoolJournal.Changes() {
+				@Override
+				public void put(TableSnapshot table) {
+					found.remove(table.getName());
+					replayed.put(table.getName(), measured(table));
+				}
+				
+				@Override
+				public void delete(String name) {
+					found.remove(name);
+					replayed.remove(name);
+				}
+			}, this::nextVersion);
+			if(timer != null) timer.mark("replayed journal");
+			event.finish(loaded.size() + found.size(), bytes, journal.size());
+			synchronized(this) {
+				Contents before = contents;
+				contents = new Contents(loaded, found);
+				cache.clear();
+				unsaved.clear();
+				fire(changesBetween(before, contents));
+			}
+			if(migrate != null) {
+				log.writeToLog("Migrating " + migrate.getFileName() + " to the current " + POOL_FILE_NAME + " format");
+				synchronized(saveLock) {
+					compact(new ArrayList<>(loaded.values()), new ArrayList<>(found.values()), journal.size());
+				}
+				if(timer != null) timer.mark("migrated to " + POOL_FILE_NAME);
+			} else if(journal.size() > COMPACT_THRESHOLD) {
+				compactInBackground();
+			}
+			return true;
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+		}
+		return false;
+	}
+	
+	/**
+	 * Starts rewriting the pool file on the compactor thread, unless it is already doing so. The journal's size
+	 * is taken before the tables, so every record it holds up to that size is reflected in what gets written.
+	 */
+	private void compactInBackground() throws IOException {
+		if(!compacting.compareAndSet(false, true)) return;
+		long covered = journal.size();
+		Contents now = contents;
+		ArrayList<TableSnapshot> current = new ArrayList<>(now.tables.values());
+		ArrayList<StoredTable> kept = new ArrayList<>(now.stored.values());
+		compactor.execute(() -> {
+			try {
+				compact(current, kept, covered);
+				log.writeToLog("Compacted " + JOURNAL_FILE_NAME + " into " + POOL_FILE_NAME);
+			} catch (IOException e) {
+				if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			} finally {
+				compacting.set(false);
+			}
+		});
+	}
+	
+	/**
+	 * Writes every table to a temporary file, forces it to disk, moves it over POOL_FILE_NAME, then drops the journal
+	 * records it holds. Tables already in the pool file are copied across without being read. Tables written from
+	 * memory that have not been edited since are then read from the new file like any other, instead of being held
+	 * in memory. If this is interrupted, the old pool file and the whole journal are still in place, so nothing is lost.
+	 * @param current every table held in memory
+	 * @param kept every table in the current pool file
+	 * @param covered the journal's size when current and kept were taken
+	 * @throws IOException if the pool file could not be written
+	 */
+	private void compact(Collection<TableSnapshot> current, Collection<StoredTable> kept, long covered) throws IOException {
+		PoolCompactEvent event = new PoolCompactEvent();
+		event.begin();
+		Path temp = poolFile.resolveSibling(POOL_FILE_NAME + ".tmp");
+		ArrayList<PoolFile.Location> copied = new ArrayList<>(kept.size());
+		for(StoredTable table : kept) {
+			copied.add(table.location);
+		}
+		ArrayList<PoolFile.Location> written = PoolFile.write(temp, current, poolFile, copied);
+		long bytes = Files.size(temp);
+		synchronized(fileLock) {
+			Files.move(temp, poolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			synchronized(this) {
+				HashMap<String, TableSnapshot> tables = new HashMap<>(contents.tables);
+				HashMap<String, StoredTable> stored = new HashMap<>(contents.stored);
+				int i = 0;
+				for(TableSnapshot table : current) {
+					PoolFile.Location location = written.get(i++);
+					if(tables.get(table.getName()) != table) continue;
+					tables.remove(table.getName());
+					StoredTable moved = new StoredTable(location, table.getVersion());
+					stored.put(table.getName(), moved);
+					cache.put(moved, table);
+				}
+				// Only read under fileLock, so rebasing them in place can't be seen half done
+				for(StoredTable table : kept) {
+					table.location = written.get(i++);
+				}
+				contents = new Contents(tables, stored);
+			}
+		}
+		journal.discard(covered);
+		event.finish(current.size() + kept.size(), current.size(), bytes);
+	}
+	
+	/**
+	 * Reads a pool saved with Java serialization: a HashMap of each table's entries, optionally followed by
+	 * a HashMap of the weights of every weighted table.
+	 * @param file the .ser file to read
+	 * @return the tables in the file
+	 * @throws IOException if the file could not be read
+	 */
+	@SuppressWarnings("unchecked")
+	private HashMap<String, TableSnapshot> loadLegacy(Path file) throws IOException {
+		try(ObjectInputStream objIn = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			HashMap<String, ArrayList<String>> entries = (HashMap<String, ArrayList<String>>) objIn.readObject();
+			HashMap<String, double[]> weights;
+			try {
+				weights = (HashMap<String, double[]>) objIn.readObject();
+			} catch(EOFException e) {
+				// Saved before weights existed; every table is uniform
+				weights = new HashMap<>();
+			}
+			HashMap<String, TableSnapshot> loaded = new HashMap<>();
+			long lastModified = Files.getLastModifiedTime(file).toMillis();
+			for(Map.Entry<String, ArrayList<String>> entry : entries.entrySet()) {
+				String name = entry.getKey();
+				loaded.put(name, measured(TableSnapshot.of(name, entry.getValue(), weights.get(name), nextVersion(), lastModified)));
+			}
+			return loaded;
+		} catch (ClassNotFoundException e) {
+			// There's a serious problem if this is ever thrown...
+			throw new IOException(e);
+		}
+	}
+	
+	/***
+	 * Returns the text of the passed table as a string with each element
+	 * delimited as a newline (\n)
+	 * @author Raymond Gillies
+	 * @param table the Collection whose elements should be converted to a string
+	 * @return a newline-delimited string representation of the passed RandomTable's elements
+	 */
+	public String textFromTable(Collection<String> table) {
+		StringBuilder builder = new StringBuilder();
+		for(String str : table) {
+			builder.append(escapeWeight(str)).append('\n');
+		}
+	
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns the text of the named table in the same format that newTableFromString accepts,
+	 * with any weights written back as a trailing "*N".
+	 * @param name name of the table
+	 * @return a newline-delimited string representation of the table's entries and weights
+	 */
+	public String textFromTable(String name) {
+		TableSnapshot table = getTable(name);
+		if(!table.isWeighted()) return textFromTable(table);
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < table.size(); i++) {
+			builder.append(escapeWeight(table.get(i)));
+			double weight = table.getWeight(i);
+			if(weight != 1.0) {
+				builder.append(" *");
+				if(weight == Math.rint(weight)) builder.append((long)weight);
+				else builder.append(weight);
+			}
+			builder.append('\n');
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Adds a backslash before the "*N" at the end of an entry that newTableFromString would otherwise read as a
+	 * weight, or whose backslashes it would take off, so that the entry reads back as it is.
+	 * @param entry an entry of a table
+	 * @return the entry as it should be written for newTableFromString
+	 */
+	private static String escapeWeight(String entry) {
+		if(entry.indexOf('*') < 0) return entry;
+		Matcher matcher = ESCAPED_WEIGHT.matcher(entry);
+		if(!matcher.matches()) return entry;
+		return matcher.group(1) + "\\" + matcher.group(2) + matcher.group(3);
+	}
+	
+	/**
+	 * Checks to see if the table name entered already exists.
+	 * @param name table name to search for
+	 * @return true if name already exists, false otherwise
+	 */
+	public boolean has(String name) {
+		if(name == null) return false;
+		Contents current = contents;
+		return current.tables.containsKey(name) || current.stored.containsKey(name);
+	}
+	
+	/**
+	 * Removes the table at the selected index
+	 * @param index index of table to be deleted
+	 */
+	public synchronized void deleteTable(String name) {
+		long oldVersion = contents.versionOf(name);
+		if(oldVersion == 0) return;
+		HashMap<String, TableSnapshot> tables = new HashMap<>(contents.tables);
+		HashMap<String, StoredTable> stored = new HashMap<>(contents.stored);
+		tables.remove(name);
+		StoredTable old = stored.remove(name);
+		if(old != null) cache.remove(old);
+		unsaved.add(name);
+		contents = new Contents(tables, stored);
+		fire(Collections.singletonList(new PoolEvent(this, PoolEvent.Type.REMOVED, name, oldVersion, 0)));
+	}
+	
+	/**
+	 * Completely clears the list of tables.
+	 * Mostly used for debugging purposes
+	 * @author Raymond Gillies
+	 */
+	public synchronized void clear() {
+		Contents before = contents;
+		unsaved.addAll(Arrays.asList(before.names));
+		contents = new Contents(new HashMap<>(), new HashMap<>());
+		cache.clear();
+		fire(changesBetween(before, contents));
+	}
+	
+	/**
+	 * Registers a listener to be told whenever tables are added, removed or replaced. See PoolListener for the
+	 * thread it is called on.
+	 * @param listener the listener to add
+	 */
+	public void addPoolListener(PoolListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void removePoolListener(PoolListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Tells every listener about events, if there are any. The caller must hold this pool's lock.
+	 */
+	private void fire(List<PoolEvent> events) {
+		if(events.isEmpty()) return;
+		List<PoolEvent> unmodifiable = Collections.unmodifiableList(events);
+		for(PoolListener listener : listeners) {
+			try {
+				listener.tablesChanged(unmodifiable);
+			} catch(RuntimeException e) {
+				// One broken listener must not stop the others from hearing about the change, or undo the change itself
+				if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			}
+		}
+	}
+	
+	/**
+	 * @return an event for every table that differs between before and after
+	 */
+	private ArrayList<PoolEvent> changesBetween(Contents before, Contents after) {
+		ArrayList<PoolEvent> events = new ArrayList<>();
+		for(String name : after.names) {
+			long oldVersion = before.versionOf(name);
+			long newVersion = after.versionOf(name);
+			if(oldVersion == 0) events.add(new PoolEvent(this, PoolEvent.Type.ADDED, name, 0, newVersion));
+			else if(oldVersion != newVersion) events.add(new PoolEvent(this, PoolEvent.Type.REPLACED, name, oldVersion, newVersion));
+		}
+		for(String name : before.names) {
+			if(after.versionOf(name) == 0) events.add(new PoolEvent(this, PoolEvent.Type.REMOVED, name, before.versionOf(name), 0));
+		}
+		return events;
+	}
+	
+	/**
+	 * Returns an array of Strings containing the names of each stored table
+	 * @return an array of stored table names
+	 */
+	public String[] getTableNames() {
+		return contents.names.clone();
+	}
+	
+	/**
+	 * Checks if there are no tables available for the user to edit / choose from
+	 * @return true if there are no tables, false otherwise
+	 */
+	public boolean isEmpty() {
+		if(contents.names.length == 0) return true;
+		else return false;
+	}
+	
+	/**
+	 * Returns the number of entries in the named table, without reading the table if it is not in memory.
+	 * @param name name of the table
+	 * @return the number of entries in the table, or 0 if there is no table with that name
+	 */
+	public int getTableSize(String name) {
+		Contents current = contents;
+		TableSnapshot table = current.tables.get(name);
+		if(table != null) return table.size();
+		StoredTable entry = current.stored.get(name);
+		return entry == null ? 0 : entry.location.entryCount;
+	}
+	
+	/**
+	 * Returns the entry count, size, distinct entry count and modification time of the named table, without reading
+	 * or copying its entries. Never blocks.
+	 * @param name name of the table
+	 * @return the table's info, or null if there is no table with that name
+	 */
+	public TableInfo getTableInfo(String name) {
+		Contents current = contents;
+		TableSnapshot table = current.tables.get(name);
+		if(table != null) return table.getInfo();
+		StoredTable entry = current.stored.get(name);
+		return entry == null ? null : entry.info;
+	}
+	
+	/**
+	 * Returns the current snapshot of the named table. Snapshots are immutable and shared, not copied.
+	 * If the table is not in memory it is read from the pool file, so this may block; the UI should call it off
+	 * the event dispatch thread.
+	 * @param name name of the table
+	 * @return the table's current snapshot, or null if there is no table with that name
+	 * @throws UncheckedIOException if the table could not be read from the pool file
+	 */
+	public TableSnapshot getTable(String name) {
+		Contents current = contents;
+		TableSnapshot table = current.tables.get(name);
+		if(table != null) return table;
+		StoredTable entry = current.stored.get(name);
+		if(entry == null) return null;
+		table = cache.get(entry);
+		if(table != null) return table;
+		synchronized(fileLock) {
+			// Another thread may have read it while this one waited
+			table = cache.get(entry);
+			if(table == null) {
+				try {
+					table = PoolFile.readTable(poolFile, entry.location, entry.version);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				// A table replaced or deleted while it was being read is not cached, since nothing would ask for it again
+				if(contents.stored.get(name) == entry) cache.put(entry, table);
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Sets how much memory the tables read from the pool file may take up. Tables that were used longest ago are
+	 * dropped from memory first, and read again if they are needed.
+	 * @param bytes the memory budget, in bytes
+	 */
+	public void setCacheBudget(long bytes) {
+		cache.setBudget(bytes);
+	}
+	
+	/**
+	 * @return the memory budget for tables read from the pool file, in bytes
+	 */
+	public long getCacheBudget() {
+		return cache.getBudget();
+	}
+	
+	/**
+	 * Waits for a compaction running in the background, if there is one, to finish.
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	void awaitCompaction() throws InterruptedException {
+		try {
+			compactor.submit(() -> {}).get();
+		} catch (ExecutionException e) {
+			// Nothing can go wrong in the empty task that was waited on
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Every table in the pool at one moment. Neither it nor its maps are changed once it has been published, so it
+	 * can be read without locking.
+	 */
+	private static final class Contents {
+		
+		// Tables added or replaced since the pool file was written. A table is in either this map or stored, never both.
+		final HashMap<String, TableSnapshot> tables;
+		// Tables whose contents are only read from the pool file when they're needed
+		final HashMap<String, StoredTable> stored;
+		final String[] names;
+		
+		Contents(HashMap<String, TableSnapshot> tables, HashMap<String, StoredTable> stored) {
+			this.tables = tables;
+			this.stored = stored;
+			names = new String[tables.size() + stored.size()];
+			int index = 0;
+			for(String name : tables.keySet()) {
+				names[index++] = name;
+			}
+			for(String name : stored.keySet()) {
+				names[index++] = name;
+			}
+		}
+		
+		/**
+		 * @return the version of the named table, or 0 if there is no table with that name
+		 */
+		long versionOf(String name) {
+			TableSnapshot table = tables.get(name);
+			if(table != null) return table.getVersion();
+			StoredTable entry = stored.get(name);
+			return entry == null ? 0 : entry.version;
+		}
+	}
+	
+	/**
+	 * A table that is kept in the pool file, and the version it was given when it was loaded. Each one is
+	 * the key for its table in the cache. Its location changes when the pool file is compacted.
+	 */
+	private static final class StoredTable {
+		
+		volatile PoolFile.Location location;
+		final long version;
+		// Taken from the pool file's directory, so it stays the same when the table is moved by a compaction
+		final TableInfo info;
+		
+		StoredTable(PoolFile.Location location, long version) {
+			this.location = location;
+			this.version = version;
+			this.info = location.info(version);
+		}
+	}
+}
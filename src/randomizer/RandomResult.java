@@ -0,0 +1,127 @@
+package randomizer;
+
+/**
+ * The output of one call to Randomizer.randomize, along with the generator algorithm and seed that produced it.
+ * Passing the same algorithm and seed to a new Randomizer with the same tables and settings reproduces the output exactly.
+ * <p>
+ * Outputs are not stored as Strings. Each output is a single int that points into one of the immutable table snapshots
+ * the result was drawn from, and the String is only looked up when get is called. When tables are combined, the int is
+ * the output's position in the union of the tables; otherwise each table owns a slice of the result, and the int is the
+ * index of the entry within that table.
+ * @author Raymond Gillies
+ */
+public class RandomResult {
+	
+	private final TableSnapshot[] snapshots;
+	// Combined: where each table starts in the union. Separate: where each table's slice starts in the result.
+	private final int[] starts;
+	private final int[] positions;
+	private final int size;
+	private final boolean unified;
+	private final String algorithm;
+	private final long seed;
+	
+	RandomResult(TableSnapshot[] snapshots, int[] starts, int[] positions, int size, boolean unified, String algorithm, long seed) {
+		this.snapshots = snapshots;
+		this.starts = starts;
+		this.positions = positions;
+		this.size = size;
+		this.unified = unified;
+		this.algorithm = algorithm;
+		this.seed = seed;
+	}
+	
+	/**
+	 * @return the number of outputs
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @param index index of the output
+	 * @return the output at the passed index
+	 */
+	public String get(int index) {
+		return snapshots[getTableIndex(index)].get(getEntryIndex(index));
+	}
+	
+	/**
+	 * @param index index of the output
+	 * @return the index of the table, in the order the tables were passed to randomize, that the output was drawn from
+	 */
+	public int getTableIndex(int index) {
+		checkIndex(index);
+		return search(starts, unified ? positions[index] : index);
+	}
+	
+	/**
+	 * @param index index of the output
+	 * @return the index of the output's entry within its table
+	 */
+	public int getEntryIndex(int index) {
+		checkIndex(index);
+		if(unified) return positions[index] - starts[search(starts, positions[index])];
+		return positions[index];
+	}
+	
+	/**
+	 * @param tableIndex index of a table, as returned by getTableIndex
+	 * @return the snapshot of the table that outputs with that table index were drawn from
+	 */
+	public TableSnapshot getTable(int tableIndex) {
+		return snapshots[tableIndex];
+	}
+	
+	/**
+	 * Looks up every output and returns them as a new array. This holds every output in memory at once;
+	 * prefer get(index) for large results.
+	 * @return the outputs, in the order they were drawn
+	 */
+	public String[] getOutputs() {
+		String[] outputs = new String[size];
+		for(int i = 0; i < size; i++) {
+			outputs[i] = get(i);
+		}
+		return outputs;
+	}
+	
+	/**
+	 * @return the name of the RandomGenerator algorithm that produced this result
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+	
+	/**
+	 * @return the seed that produced this result
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Returns the index array backing this result so that a later run can reuse it instead of allocating a new one.
+	 */
+	int[] recyclePositions() {
+		return positions;
+	}
+	
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+	}
+	
+	/**
+	 * @return the last table that starts at or before position; tables with nothing in them are skipped
+	 */
+	private static int search(int[] starts, int position) {
+		int low = 0;
+		int high = starts.length - 1;
+		while(low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if(starts[mid] <= position) low = mid;
+			else high = mid - 1;
+		}
+		return low;
+	}
+}
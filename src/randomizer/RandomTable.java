@@ -1,51 +1,71 @@
-package randomizer;
-
-import java.io.Serializable;
-import java.util.ArrayList;
-
-/**
- * Maintains an ArrayList of Strings, along with other information needed in order to be
- * randomized.
- * @author Raymond Gillies
- */
-public class RandomTable extends ArrayList<String> 
-							implements Serializable {
-	
-	private static final long serialVersionUID = 9116264912910319759L;
-	private String tableName;
-	private int numOutputs;
-	private boolean canRepeat;
-
-	@SuppressWarnings("unchecked")
-	public RandomTable(ArrayList<String> from, String tableName, int numOutputs, boolean canRepeat) {
-		this.addAll((ArrayList<String>)from.clone());
-		this.tableName = tableName;
-		this.numOutputs = numOutputs;
-		this.canRepeat = canRepeat;
-	}
-	
-	public String getTableName() {
-		return tableName;
-	}
-
-	public void setTableName(String tableName) {
-		this.tableName = tableName;
-	}
-
-	public int getNumOutputs() {
-		return numOutputs;
-	}
-
-	public void setNumOutputs(int numOutputs) {
-		this.numOutputs = numOutputs;
-	}
-
-	public boolean canRepeat() {
-		return canRepeat;
-	}
-
-	public void setCanRepeat(boolean canRepeat) {
-		this.canRepeat = canRepeat;
-	}
-	
-}
+package randomizer;
+
+/**
+ * A lightweight view of a table that is about to be randomized: the table's current snapshot, along with
+ * the number of outputs wanted from it and whether those outputs can repeat. The snapshot is shared with
+ * the RandomPool, not copied.
+ * @author Raymond Gillies
+ */
+public class RandomTable {
+	
+	private TableSnapshot snapshot;
+	private int numOutputs;
+	private boolean canRepeat;
+
+	public RandomTable(TableSnapshot snapshot, int numOutputs, boolean canRepeat) {
+		this.snapshot = snapshot;
+		this.numOutputs = numOutputs;
+		this.canRepeat = canRepeat;
+	}
+	
+	public TableSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	public String getTableName() {
+		return snapshot.getName();
+	}
+
+	public int getNumOutputs() {
+		return numOutputs;
+	}
+
+	public void setNumOutputs(int numOutputs) {
+		this.numOutputs = numOutputs;
+	}
+
+	public boolean canRepeat() {
+		return canRepeat;
+	}
+
+	public void setCanRepeat(boolean canRepeat) {
+		this.canRepeat = canRepeat;
+	}
+	
+	/**
+	 * @param index index of the entry
+	 * @return the entry at the passed index in this table's snapshot
+	 */
+	public String get(int index) {
+		return snapshot.get(index);
+	}
+	
+	/**
+	 * @return the number of entries in this table's snapshot
+	 */
+	public int size() {
+		return snapshot.size();
+	}
+	
+	/**
+	 * @return the alias table holding this table's entry weights, or null if every entry is equally likely
+	 */
+	public AliasTable getAliasTable() {
+		return snapshot.getAliasTable();
+	}
+	
+	public boolean isWeighted() {
+		return snapshot.isWeighted();
+	}
+	
+}
@@ -0,0 +1,39 @@
+package randomizer;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for each call to Randomizer.randomize, and for each stream from Randomizer.stream once its last output
+ * has been read. Streams and sinks draw their outputs as they are read, so for them the duration includes whatever
+ * the reader does with each output, such as writing it out; a stream that is not read to the end is not recorded.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.Randomize")
+@Label("Randomize")
+final class RandomizeEvent extends RandomizerEvent {
+
+	@Label("Tables")
+	int tables;
+
+	@Label("Outputs")
+	long outputs;
+
+	@Label("Unified")
+	boolean unified;
+
+	@Label("Algorithm")
+	String algorithm;
+
+	RandomizeEvent(int tables, boolean unified, String algorithm) {
+		super(Metrics.Operation.RANDOMIZE);
+		this.tables = tables;
+		this.unified = unified;
+		this.algorithm = algorithm;
+	}
+
+	void finish(long outputs) {
+		this.outputs = outputs;
+		super.finish(outputs);
+	}
+}
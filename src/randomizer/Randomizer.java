@@ -1,57 +1,373 @@
-package randomizer;
-
-import java.util.ArrayList;
-import java.util.Random;
-
-/**
- * Handles randomizing of RandomTable objects.
- * @author Raymond Gillies
- */
-public class Randomizer {
-	
-	/**
-	 * Generates a random output from the randomTables ArrayList. If unified is true, the output will be selected from all tables
-	 * in the ArrayList. If unified is false, each RandomTable will generate an output, and this method will return them all combined.
-	 * This method creates a clone of each table, and does not modify the table passed.
-	 * @param randomTables The ArrayList of RandomTables that should be drawn from
-	 * @param unified Indicates whether the output should be drawn from all tables (if true) or a unique one should be pulled from each table (if false)
-	 * @return A raw String[] array that contains the result of randomizing
-	 */
-	public String[] randomize(ArrayList<RandomTable> randomTables, boolean unified) {
-		// Random seed is system time
-		Random rand = new Random(System.currentTimeMillis());
-		String[] result;
-
-		ArrayList<RandomTable> toBeRandomized = new ArrayList<>();
-		for(RandomTable randTable : randomTables) {
-			toBeRandomized.add((RandomTable)randTable.clone());
-		}
-		int randIndex;
-		if(toBeRandomized.isEmpty()) {
-			return null;
-		}
-		if(unified) {
-			int numOutputs = toBeRandomized.get(0).getNumOutputs();
-			boolean allowRepeats = toBeRandomized.get(0).canRepeat();
-			result = new String[numOutputs];
-			for(int i = 0; i < numOutputs; i++) {
-				randIndex = rand.nextInt(toBeRandomized.size()); // Randomly select a table
-				RandomTable randTable = toBeRandomized.get(randIndex);
-				randIndex = rand.nextInt(randTable.size());
-				result[i] = randTable.get(randIndex);
-				if(!allowRepeats) randTable.remove(randIndex);
-			}
-		} else {
-			ArrayList<String> resultsAsList = new ArrayList<>();
-			for(RandomTable randTable : toBeRandomized) {
-				for(int i = 0; i < randTable.getNumOutputs(); i++) {
-					randIndex = rand.nextInt(randTable.size());
-					resultsAsList.add(randTable.get(randIndex));
-					if(!randTable.canRepeat()) randTable.remove(randIndex);
-				}
-			}
-			result = resultsAsList.toArray(new String[resultsAsList.size()]);
-		}
-		return result;
-	}
-}
+package randomizer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.random.RandomGenerator.JumpableGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Handles randomizing of RandomTable objects. Every Randomizer uses a fixed RandomGenerator algorithm and seed,
+ * both of which are recorded in its results, so any run can be replayed by creating a Randomizer with the same
+ * algorithm and seed. When tables are not combined, large runs fill each table's share of the result in parallel on the
+ * common fork/join pool; the result is the same as filling them one after another. Outputs can also be streamed one at a
+ * time through forEachOutput(tables, unified, sink) or stream(tables, unified), which produce exactly the same outputs in the same
+ * order without ever holding them all in memory.
+ * @author Raymond Gillies
+ */
+public class Randomizer {
+	
+	/**
+	 * The algorithm used when none is given. Any algorithm known to RandomGeneratorFactory can be used instead.
+	 */
+	public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+	// Runs with fewer outputs than this are not worth handing to other threads
+	private static final int PARALLEL_THRESHOLD = 10000;
+	
+	private final String algorithm;
+	private final long seed;
+	private final RandomGeneratorFactory<RandomGenerator> factory;
+	private boolean parallel = true;
+	
+	/**
+	 * Creates a Randomizer that uses the default algorithm with a fresh seed.
+	 */
+	public Randomizer() {
+		this(ThreadLocalRandom.current().nextLong());
+	}
+	
+	/**
+	 * Creates a Randomizer that uses the default algorithm with the passed seed.
+	 * @param seed the seed to generate from
+	 */
+	public Randomizer(long seed) {
+		this(DEFAULT_ALGORITHM, seed);
+	}
+	
+	/**
+	 * Creates a Randomizer that uses the passed algorithm and seed.
+	 * @param algorithm name of a RandomGenerator algorithm, such as "L64X128MixRandom" or "SplittableRandom"
+	 * @param seed the seed to generate from
+	 * @throws IllegalArgumentException if the algorithm is not known
+	 */
+	public Randomizer(String algorithm, long seed) {
+		this.factory = RandomGeneratorFactory.of(algorithm);
+		this.algorithm = algorithm;
+		this.seed = seed;
+	}
+	
+	public String getAlgorithm() {
+		return algorithm;
+	}
+	
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return true if tables may be filled in parallel, false otherwise
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+	
+	/**
+	 * Sets whether separate tables may be filled in parallel. This never changes the result, only how fast it is made.
+	 * @param parallel true to allow parallel generation, false to always fill tables one after another
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	
+	/**
+	 * Generates a random output from the randomTables ArrayList. If unified is true, the output will be selected from all tables
+	 * in the ArrayList as if they were one table, using the number of outputs and repeat setting of the first table (without repeats,
+	 * the number of outputs is capped at the combined size of the tables). If unified is false, each RandomTable will generate an output,
+	 * and this method will return them all combined.
+	 * Draws without repeats are made by index through a UniqueIndexSampler, so the tables passed are neither modified nor copied.
+	 * Weighted tables are drawn from through their AliasTable.
+	 * Each table draws from its own stream split off from this Randomizer's seed, so the output of a table does not depend on how
+	 * many draws were made from the tables before it.
+	 * @param randomTables The ArrayList of RandomTables that should be drawn from
+	 * @param unified Indicates whether the output should be drawn from all tables (if true) or a unique one should be pulled from each table (if false)
+	 * @return The result of randomizing, along with the seed that produced it
+	 */
+	public RandomResult randomize(ArrayList<RandomTable> randomTables, boolean unified) {
+		return randomize(randomTables, unified, null);
+	}
+	
+	/**
+	 * Does the same as randomize(randomTables, unified), but reuses the index array of an earlier result when it is large enough,
+	 * so that repeating a run allocates almost nothing. The earlier result must not be used again afterwards.
+	 * @param randomTables The ArrayList of RandomTables that should be drawn from
+	 * @param unified Indicates whether the output should be drawn from all tables (if true) or a unique one should be pulled from each table (if false)
+	 * @param previous an earlier result that is no longer needed, or null
+	 * @return The result of randomizing, along with the seed that produced it
+	 */
+	public RandomResult randomize(ArrayList<RandomTable> randomTables, boolean unified, RandomResult previous) {
+		if(randomTables.isEmpty()) {
+			return null;
+		}
+		RandomizeEvent event = new RandomizeEvent(randomTables.size(), unified, algorithm);
+		event.begin();
+		TableSnapshot[] snapshots = new TableSnapshot[randomTables.size()];
+		for(int t = 0; t < snapshots.length; t++) {
+			snapshots[t] = randomTables.get(t).getSnapshot();
+		}
+		int[] starts = new int[randomTables.size()];
+		int[] positions;
+		int size;
+		if(unified) {
+			// The combined table uses the settings of the first row
+			int numOutputs = randomTables.get(0).getNumOutputs();
+			boolean allowRepeats = randomTables.get(0).canRepeat();
+			UnionSampler sampler = new UnionSampler(randomTables, allowRepeats, numOutputs, streams(1)[0]);
+			for(int t = 1; t < starts.length; t++) {
+				starts[t] = starts[t - 1] + randomTables.get(t - 1).size();
+			}
+			size = sampler.getNumDraws();
+			positions = reuse(previous, size);
+			for(int i = 0; i < size; i++) {
+				long entry = sampler.nextEntry();
+				positions[i] = starts[UnionSampler.tableOf(entry)] + UnionSampler.entryOf(entry);
+			}
+		} else {
+			// Each table writes into its own slice of the result, starting at its offset
+			size = 0;
+			for(int t = 0; t < randomTables.size(); t++) {
+				starts[t] = size;
+				size = Math.addExact(size, randomTables.get(t).getNumOutputs());
+			}
+			positions = reuse(previous, size);
+			RandomGenerator[] streams = streams(randomTables.size());
+			if(parallel && randomTables.size() > 1 && size >= PARALLEL_THRESHOLD) {
+				ForkJoinPool.commonPool().invoke(new FillTask(randomTables, streams, starts, positions, 0, randomTables.size()));
+			} else {
+				for(int t = 0; t < randomTables.size(); t++) {
+					fillTable(randomTables.get(t), streams[t], positions, starts[t]);
+				}
+			}
+		}
+		event.finish(size);
+		return new RandomResult(snapshots, starts, positions, size, unified, algorithm, seed);
+	}
+	
+	/**
+	 * @return the index array of previous if it can hold size outputs, or a new array otherwise
+	 */
+	private static int[] reuse(RandomResult previous, int size) {
+		if(previous != null && previous.recyclePositions().length >= size) return previous.recyclePositions();
+		return new int[size];
+	}
+	
+	/**
+	 * Creates count independent generators from this Randomizer's algorithm and seed. The generators are split
+	 * (or jumped) off a single root generator in order, so the same seed always yields the same streams.
+	 * @param count the number of streams needed
+	 * @return one generator per stream
+	 */
+	private RandomGenerator[] streams(int count) {
+		RandomGenerator root = factory.create(seed);
+		RandomGenerator[] streams = new RandomGenerator[count];
+		for(int i = 0; i < count; i++) {
+			if(root instanceof SplittableGenerator) {
+				streams[i] = ((SplittableGenerator)root).split();
+			} else if(root instanceof JumpableGenerator) {
+				streams[i] = ((JumpableGenerator)root).copyAndJump();
+			} else {
+				streams[i] = factory.create(root.nextLong());
+			}
+		}
+		return streams;
+	}
+	
+	/**
+	 * Generates the same outputs as randomize(randomTables, unified), in the same order, but passes each one to sink as soon
+	 * as it is drawn instead of collecting them. Memory use does not grow with the number of outputs when repeats are allowed;
+	 * without repeats, only the indices already drawn from the current table are remembered.
+	 * @param randomTables The ArrayList of RandomTables that should be drawn from
+	 * @param unified Indicates whether the output should be drawn from all tables (if true) or a unique one should be pulled from each table (if false)
+	 * @param sink receives each output in order
+	 * @return the number of outputs passed to sink
+	 */
+	public long forEachOutput(ArrayList<RandomTable> randomTables, boolean unified, Consumer<String> sink) {
+		long count = 0;
+		OutputIterator outputs = new OutputIterator(randomTables, unified);
+		while(outputs.hasNext()) {
+			sink.accept(outputs.next());
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns a lazy, sequential Stream of the same outputs as randomize(randomTables, unified), in the same order.
+	 * Nothing is drawn until the stream is consumed.
+	 * @param randomTables The ArrayList of RandomTables that should be drawn from
+	 * @param unified Indicates whether the output should be drawn from all tables (if true) or a unique one should be pulled from each table (if false)
+	 * @return a Stream of outputs
+	 */
+	public Stream<String> stream(ArrayList<RandomTable> randomTables, boolean unified) {
+		OutputIterator outputs = new OutputIterator(randomTables, unified);
+		return StreamSupport.stream(Spliterators.spliterator(outputs, outputs.getNumOutputs(), 
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * Draws the entry index of every output of one table into positions, starting at offset.
+	 */
+	private void fillTable(RandomTable randTable, RandomGenerator rand, int[] positions, int offset) {
+		IndexSampler sampler = randTable.canRepeat() ? null : newSampler(randTable, randTable.getNumOutputs(), rand);
+		for(int i = 0; i < randTable.getNumOutputs(); i++) {
+			positions[offset + i] = nextIndex(randTable, sampler, rand);
+		}
+	}
+	
+	/**
+	 * Fills the slices of a range of tables by splitting the range in half until each task holds a single table.
+	 * Every table has its own stream and its own slice, so tasks never share state.
+	 */
+	@SuppressWarnings("serial")
+	private class FillTask extends RecursiveAction {
+		
+		private final ArrayList<RandomTable> randomTables;
+		private final RandomGenerator[] streams;
+		private final int[] offsets;
+		private final int[] positions;
+		private final int from;
+		private final int to;
+		
+		FillTask(ArrayList<RandomTable> randomTables, RandomGenerator[] streams, int[] offsets, int[] positions, int from, int to) {
+			this.randomTables = randomTables;
+			this.streams = streams;
+			this.offsets = offsets;
+			this.positions = positions;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from == 1) {
+				fillTable(randomTables.get(from), streams[from], positions, offsets[from]);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new FillTask(randomTables, streams, offsets, positions, from, mid),
+					new FillTask(randomTables, streams, offsets, positions, mid, to));
+		}
+	}
+	
+	/**
+	 * Draws outputs one at a time, using the same streams and samplers as randomize, so it produces the same outputs in the same order.
+	 */
+	private class OutputIterator implements Iterator<String> {
+		
+		private final ArrayList<RandomTable> randomTables;
+		private final RandomGenerator[] streams;
+		private final long numOutputs;
+		// Combined tables
+		private UnionSampler unionSampler;
+		// Separate tables
+		private int table;
+		private int drawnFromTable;
+		private IndexSampler sampler;
+		// Finished once the last output has been returned, then dropped
+		private RandomizeEvent event;
+		private long returned;
+		
+		OutputIterator(ArrayList<RandomTable> randomTables, boolean unified) {
+			event = new RandomizeEvent(randomTables.size(), unified, algorithm);
+			event.begin();
+			this.randomTables = randomTables;
+			if(randomTables.isEmpty()) {
+				streams = new RandomGenerator[0];
+				numOutputs = 0;
+			} else if(unified) {
+				streams = streams(1);
+				RandomTable first = randomTables.get(0);
+				unionSampler = new UnionSampler(randomTables, first.canRepeat(), first.getNumOutputs(), streams[0]);
+				numOutputs = unionSampler.getNumDraws();
+			} else {
+				streams = streams(randomTables.size());
+				long total = 0;
+				for(RandomTable randTable : randomTables) {
+					total += randTable.getNumOutputs();
+				}
+				numOutputs = total;
+			}
+		}
+		
+		/**
+		 * @return the total number of outputs this iterator will return
+		 */
+		long getNumOutputs() {
+			return numOutputs;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			boolean more;
+			if(unionSampler != null) {
+				more = unionSampler.hasNext();
+			} else {
+				while(table < randomTables.size() && drawnFromTable >= randomTables.get(table).getNumOutputs()) {
+					table++;
+					drawnFromTable = 0;
+					sampler = null;
+				}
+				more = table < randomTables.size();
+			}
+			if(!more && event != null) {
+				event.finish(returned);
+				event = null;
+			}
+			return more;
+		}
+		
+		@Override
+		public String next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			returned++;
+			if(unionSampler != null) {
+				long entry = unionSampler.nextEntry();
+				return randomTables.get(UnionSampler.tableOf(entry)).get(UnionSampler.entryOf(entry));
+			}
+			RandomTable randTable = randomTables.get(table);
+			if(drawnFromTable == 0 && !randTable.canRepeat()) {
+				sampler = newSampler(randTable, randTable.getNumOutputs(), streams[table]);
+			}
+			drawnFromTable++;
+			return randTable.get(nextIndex(randTable, sampler, streams[table]));
+		}
+	}
+	
+	/**
+	 * Creates the sampler used to draw from a table without repeats.
+	 * @param numDraws the number of draws that will be made
+	 * @return a WeightedUniqueSampler if the table is weighted, a UniqueIndexSampler otherwise
+	 */
+	private IndexSampler newSampler(RandomTable randTable, int numDraws, RandomGenerator rand) {
+		if(randTable.isWeighted()) return new WeightedUniqueSampler(randTable.getAliasTable(), rand);
+		return new UniqueIndexSampler(randTable.size(), numDraws, rand);
+	}
+	
+	/**
+	 * Draws the index of the next entry from a table. If sampler is null, the draw allows repeats.
+	 */
+	private int nextIndex(RandomTable randTable, IndexSampler sampler, RandomGenerator rand) {
+		if(sampler != null) return sampler.nextIndex();
+		if(randTable.isWeighted()) return randTable.getAliasTable().next(rand);
+		return rand.nextInt(randTable.size());
+	}
+}
@@ -0,0 +1,37 @@
+package randomizer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events the program records, which all appear in the "Randomizer" category. Start a
+ * recording with -XX:StartFlightRecording, or from JDK Mission Control, to see them.
+ * <p>
+ * Each event is made and begun just before the operation it describes, then finished once it is done, which commits
+ * it to any recording and counts it in Metrics. Events that are never finished, such as for an operation that
+ * failed, are not recorded anywhere. Making and finishing an event costs almost nothing when nothing is recording.
+ * Stack traces are left out, since these events are recorded often and their call sites are always the same.
+ * @author Raymond Gillies
+ */
+@Category("Randomizer")
+@StackTrace(false)
+abstract class RandomizerEvent extends Event {
+
+	// Transient fields are not part of the event
+	private transient final Metrics.Operation operation;
+	private transient final long start = System.nanoTime();
+
+	RandomizerEvent(Metrics.Operation operation) {
+		this.operation = operation;
+	}
+
+	/**
+	 * Commits this event and counts it in Metrics.
+	 * @param amount how much the operation handled, in its unit, or 0 if it has none
+	 */
+	void finish(long amount) {
+		commit();
+		Metrics.record(operation, System.nanoTime() - start, amount);
+	}
+}
@@ -0,0 +1,188 @@
+package randomizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Writes results out as UTF-8 text, either one output per line or as CSV. Rows are encoded a chunk at a time into
+ * a single reusable buffer and written straight to a channel, so exporting never builds the whole text in memory.
+ * An exporter keeps its buffers between exports, so it is not safe to use from more than one thread at a time.
+ * @author Raymond Gillies
+ */
+public class ResultExporter {
+	
+	/**
+	 * The file formats that results can be exported as.
+	 */
+	public enum Format { 
+		/** One output per line */
+		TEXT, 
+		/** A header row, then one row per output holding the table it came from and the output itself */
+		CSV 
+	}
+	
+	/**
+	 * Receives progress updates during an export, and can cancel it.
+	 */
+	public interface ProgressListener {
+		/**
+		 * Called after each chunk of rows is written.
+		 * @param written the number of rows written so far
+		 * @param total the total number of rows, or -1 if it is not known
+		 * @return true to keep going, false to cancel the export
+		 */
+		boolean progress(long written, long total);
+	}
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	// Rows are gathered into chunks of about this many characters before being encoded
+	private static final int CHUNK_SIZE = 1 << 15;
+	
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 256);
+	private WritableByteChannel channel;
+	
+	/**
+	 * Exports a result to a file, replacing the file if it exists. If the export is cancelled or fails, the
+	 * partly written file is deleted.
+	 * @param result the result to export
+	 * @param file the file to write
+	 * @param format the format to write in
+	 * @param listener receives progress updates and can cancel the export; may be null
+	 * @return true if the whole result was written, false if the export was cancelled
+	 * @throws IOException if the file could not be written
+	 */
+	public boolean export(RandomResult result, Path file, Format format, ProgressListener listener) throws IOException {
+		boolean finished = false;
+		try(FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			start(fileChannel);
+			if(format == Format.CSV) appendCsvRow("table", "output");
+			int size = result.size();
+			for(int i = 0; i < size; i++) {
+				if(format == Format.CSV) {
+					appendCsvRow(result.getTable(result.getTableIndex(i)).getName(), result.get(i));
+				} else {
+					chunk.append(result.get(i)).append('\n');
+				}
+				if(chunk.length() >= CHUNK_SIZE) {
+					writeChunk();
+					if(listener != null && !listener.progress(i + 1, size)) return false;
+				}
+			}
+			finish();
+			if(listener != null) listener.progress(size, size);
+			finished = true;
+			return true;
+		} finally {
+			channel = null;
+			if(!finished) Files.deleteIfExists(file);
+		}
+	}
+	
+	/**
+	 * Writes a stream of outputs to a channel, such as one returned by Randomizer.stream. The channel is not closed.
+	 * In CSV format there is a single "output" column, since the outputs do not carry their table.
+	 * @param outputs the outputs to write
+	 * @param out the channel to write to
+	 * @param format the format to write in
+	 * @return the number of outputs written
+	 * @throws IOException if the channel could not be written to
+	 */
+	public long export(Iterator<String> outputs, WritableByteChannel out, Format format) throws IOException {
+		long written = 0;
+		try {
+			start(out);
+			if(format == Format.CSV) appendCsvRow("output");
+			while(outputs.hasNext()) {
+				if(format == Format.CSV) appendCsvRow(outputs.next());
+				else chunk.append(outputs.next()).append('\n');
+				written++;
+				if(chunk.length() >= CHUNK_SIZE) writeChunk();
+			}
+			finish();
+		} finally {
+			channel = null;
+		}
+		return written;
+	}
+	
+	private void start(WritableByteChannel out) {
+		channel = out;
+		buffer.clear();
+		encoder.reset();
+		chunk.setLength(0);
+	}
+	
+	private void appendCsvRow(String... fields) {
+		for(int i = 0; i < fields.length; i++) {
+			if(i > 0) chunk.append(',');
+			appendCsvField(fields[i]);
+		}
+		chunk.append("\r\n");
+	}
+	
+	/**
+	 * Appends a field, quoting it if it holds a comma, quote or line break.
+	 */
+	private void appendCsvField(String field) {
+		boolean quote = false;
+		for(int i = 0; i < field.length() && !quote; i++) {
+			char c = field.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if(!quote) {
+			chunk.append(field);
+			return;
+		}
+		chunk.append('"');
+		for(int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if(c == '"') chunk.append('"');
+			chunk.append(c);
+		}
+		chunk.append('"');
+	}
+	
+	/**
+	 * Encodes the current chunk into the buffer, writing the buffer out whenever it fills up. Chunks always end
+	 * on a row boundary, so a surrogate pair is never split between two chunks.
+	 */
+	private void writeChunk() throws IOException {
+		CharBuffer in = CharBuffer.wrap(chunk);
+		while(true) {
+			CoderResult coderResult = encoder.encode(in, buffer, false);
+			if(coderResult.isOverflow()) drain();
+			else if(coderResult.isUnderflow()) break;
+			else coderResult.throwException();
+		}
+		chunk.setLength(0);
+	}
+	
+	private void finish() throws IOException {
+		writeChunk();
+		CharBuffer empty = CharBuffer.allocate(0);
+		while(encoder.encode(empty, buffer, true).isOverflow()) drain();
+		while(encoder.flush(buffer).isOverflow()) drain();
+		drain();
+	}
+	
+	private void drain() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,57 @@
+package randomizer;
+
+import java.util.ArrayList;
+
+/**
+ * Records how long each step of starting the program takes, so that slow startups can be tracked down.
+ * Steps may be marked from any thread; each is reported with the time since the timer was created, the time since
+ * the step marked before it, and the thread that marked it.
+ * @author Raymond Gillies
+ */
+public final class StartupTimer {
+
+	// Set to true to print the timing to standard error as well as the log
+	static final String PRINT_PROPERTY = "randomizer.startupTiming";
+
+	private final long start = System.nanoTime();
+	private final ArrayList<String> steps = new ArrayList<>();
+	private final ArrayList<Long> times = new ArrayList<>();
+	private final ArrayList<String> threads = new ArrayList<>();
+
+	/**
+	 * Records that a step of startup has just finished.
+	 * @param step a short description of the step
+	 */
+	public synchronized void mark(String step) {
+		steps.add(step);
+		times.add(System.nanoTime());
+		threads.add(Thread.currentThread().getName());
+	}
+
+	/**
+	 * Writes every step marked so far to the log, in the order they were marked. The log is normally disabled, so
+	 * the steps are also printed to standard error when the program is started with -Drandomizer.startupTiming=true.
+	 * @param log the log to write to
+	 */
+	public synchronized void report(Log log) {
+		boolean print = Boolean.getBoolean(PRINT_PROPERTY);
+		if(!log.isEnabled() && !print) return;
+		ArrayList<String> lines = new ArrayList<>();
+		lines.add("Startup timing:");
+		long previous = start;
+		for(int i = 0; i < steps.size(); i++) {
+			long time = times.get(i);
+			lines.add(String.format("  %-28s %6d ms  (+%d ms, %s)", steps.get(i), millis(time - start),
+					millis(time - previous), threads.get(i)));
+			previous = time;
+		}
+		for(String line : lines) {
+			log.writeToLog(line);
+			if(print) System.err.println(line);
+		}
+	}
+
+	private static long millis(long nanos) {
+		return nanos / 1_000_000;
+	}
+}
@@ -0,0 +1,135 @@
+package randomizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A least-recently-used cache of tables that have been read from a pool file. It holds as many tables as fit in
+ * its memory budget, evicting the ones that were used longest ago to make room. The table used most recently is
+ * always kept, even if it is larger than the whole budget on its own. Sizes are estimates of each table's heap
+ * footprint, not exact measurements.
+ * Looking a table up never locks, so readers on many threads don't wait on each other. Each lookup stamps the table
+ * with the order it was used in, and tables are only sorted by those stamps when some have to be evicted.
+ * @author Raymond Gillies
+ * @param <K> the type of key each table is cached under
+ */
+final class TableCache<K> {
+
+	// Rough heap cost of one entry on top of its characters: the String, its byte array and the slot that refers to it
+	private static final int ENTRY_OVERHEAD = 64;
+	// A weight, plus the probability and alias kept for it in the AliasTable
+	private static final int WEIGHT_OVERHEAD = 20;
+
+	// Only changed while holding this cache's lock, but read without it
+	private final ConcurrentHashMap<K, Cached> tables = new ConcurrentHashMap<>();
+	// Counts uses of tables, giving the order they were used in
+	private final AtomicLong clock = new AtomicLong();
+	private volatile long budget;
+	private long used;
+
+	/**
+	 * @param budget the number of bytes the cached tables may take up
+	 */
+	TableCache(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * @param key the key the table was cached under
+	 * @return the cached table, or null if it is not cached
+	 */
+	TableSnapshot get(K key) {
+		Cached cached = tables.get(key);
+		if(cached == null) return null;
+		cached.lastUsed = clock.incrementAndGet();
+		return cached.table;
+	}
+
+	/**
+	 * Caches a table as the most recently used one, evicting others if it does not fit.
+	 * @param key the key to cache the table under
+	 * @param table the table to cache
+	 */
+	synchronized void put(K key, TableSnapshot table) {
+		Cached cached = new Cached(table, clock.incrementAndGet());
+		Cached old = tables.put(key, cached);
+		if(old != null) used -= old.bytes;
+		used += cached.bytes;
+		evict(key);
+	}
+
+	synchronized void remove(K key) {
+		Cached old = tables.remove(key);
+		if(old != null) used -= old.bytes;
+	}
+
+	synchronized void clear() {
+		tables.clear();
+		used = 0;
+	}
+
+	/**
+	 * Changes the memory budget, evicting tables straight away if they no longer fit.
+	 * @param budget the number of bytes the cached tables may take up
+	 */
+	synchronized void setBudget(long budget) {
+		this.budget = budget;
+		evict(null);
+	}
+
+	long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return the estimated number of bytes taken up by the cached tables
+	 */
+	synchronized long getUsed() {
+		return used;
+	}
+
+	/**
+	 * Evicts the tables used longest ago until the rest fit in the budget, always keeping at least one table.
+	 * @param keep the key of a table that must not be evicted, or null
+	 */
+	private void evict(K keep) {
+		if(used <= budget) return;
+		ArrayList<Map.Entry<K, Cached>> byAge = new ArrayList<>(tables.entrySet());
+		byAge.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+		for(Map.Entry<K, Cached> entry : byAge) {
+			if(used <= budget || tables.size() <= 1) break;
+			if(entry.getKey().equals(keep)) continue;
+			tables.remove(entry.getKey());
+			used -= entry.getValue().bytes;
+		}
+	}
+
+	/**
+	 * @param table the table to measure
+	 * @return a rough estimate of the number of bytes the table takes up on the heap
+	 */
+	static long estimateBytes(TableSnapshot table) {
+		long bytes = 0;
+		for(String entry : table) {
+			bytes += ENTRY_OVERHEAD + entry.length();
+		}
+		if(table.isWeighted()) bytes += (long)WEIGHT_OVERHEAD * table.size();
+		return bytes;
+	}
+
+	private static final class Cached {
+
+		final TableSnapshot table;
+		final long bytes;
+		volatile long lastUsed;
+
+		Cached(TableSnapshot table, long lastUsed) {
+			this.table = table;
+			this.bytes = estimateBytes(table);
+			this.lastUsed = lastUsed;
+		}
+	}
+}
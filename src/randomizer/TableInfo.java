@@ -0,0 +1,108 @@
+package randomizer;
+
+import java.util.HashSet;
+
+/**
+ * Facts about one version of a table that can be asked for without reading or copying its entries: how many
+ * entries it has, how many of them differ, how much text they hold and when the table was last changed. A RandomPool
+ * keeps one for every table, reading them from the pool file's directory for tables that have not been read yet.
+ * @author Raymond Gillies
+ * @see RandomPool#getTableInfo(String)
+ */
+public final class TableInfo {
+
+	private final String name;
+	private final long version;
+	private final int entryCount;
+	private final long textBytes;
+	private final int distinctCount;
+	private final long lastModified;
+	private final boolean weighted;
+
+	TableInfo(String name, long version, int entryCount, long textBytes, int distinctCount, long lastModified, boolean weighted) {
+		this.name = name;
+		this.version = version;
+		this.entryCount = entryCount;
+		this.textBytes = textBytes;
+		this.distinctCount = distinctCount;
+		this.lastModified = lastModified;
+		this.weighted = weighted;
+	}
+
+	/**
+	 * Measures a table. This goes through every entry, so it is done once per snapshot (see TableSnapshot.getInfo).
+	 * @param table the table to measure
+	 * @return the table's info
+	 */
+	static TableInfo of(TableSnapshot table) {
+		HashSet<String> distinct = new HashSet<>();
+		long bytes = 0;
+		for(String entry : table) {
+			bytes += utf8Length(entry);
+			distinct.add(entry);
+		}
+		return new TableInfo(table.getName(), table.getVersion(), table.size(), bytes, distinct.size(),
+				table.getLastModified(), table.isWeighted());
+	}
+
+	/**
+	 * @return the number of bytes text takes up in UTF-8, without encoding it
+	 */
+	static long utf8Length(String text) {
+		long bytes = 0;
+		for(int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if(c < 0x80) {
+				bytes += 1;
+			} else if(c < 0x800) {
+				bytes += 2;
+			} else if(Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			} else {
+				bytes += 3;
+			}
+		}
+		return bytes;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the version of the table this describes
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public int getEntryCount() {
+		return entryCount;
+	}
+
+	/**
+	 * @return the total size of the table's entries in UTF-8, in bytes, not counting weights or line breaks
+	 */
+	public long getTextBytes() {
+		return textBytes;
+	}
+
+	/**
+	 * @return the number of different entries in the table
+	 */
+	public int getDistinctCount() {
+		return distinctCount;
+	}
+
+	/**
+	 * @return when the table was last added or replaced, in milliseconds since the epoch
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	public boolean isWeighted() {
+		return weighted;
+	}
+}
@@ -0,0 +1,42 @@
+package randomizer;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded each time a table is made from lines of text, typed into the editor or imported, by splitting off its
+ * weights and measuring it. Reading and splitting the text into lines happens before, and is not included.
+ * @author Raymond Gillies
+ */
+@Name("randomizer.TableParse")
+@Label("Parse Table")
+final class TableParseEvent extends RandomizerEvent {
+
+	@Label("Table")
+	String table;
+
+	@Label("Format")
+	String format;
+
+	@Label("Entries")
+	int entries;
+
+	@Label("Weighted")
+	boolean weighted;
+
+	/**
+	 * @param table the name of the table being made
+	 * @param format "text" for lines written the way the editor takes them, or "csv"
+	 */
+	TableParseEvent(String table, String format) {
+		super(Metrics.Operation.TABLE_PARSE);
+		this.table = table;
+		this.format = format;
+	}
+
+	void finish(TableSnapshot parsed) {
+		entries = parsed.size();
+		weighted = parsed.isWeighted();
+		finish(entries);
+	}
+}
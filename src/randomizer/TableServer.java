@@ -0,0 +1,268 @@
+package randomizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP service that lets other programs draw outputs from the tables in a pool. It answers two requests:
+ * <ul>
+ * <li>GET /tables lists the tables and their sizes, one "name&lt;tab&gt;size" line per table.</li>
+ * <li>GET /randomize draws outputs. Each table is given as a table parameter in the same NAME[:COUNT[:r]] form as
+ * on the command line; unified=true, seed=N, algorithm=NAME and format=text|csv work like the matching command line
+ * options. The seed used is sent back in the X-Randomizer-Seed header.</li>
+ * </ul>
+ * Outputs are written to the client as they are drawn, so a large request never holds its results in memory.
+ * A request for more outputs in all than the server's maximum is refused, so that one request can't tie up a
+ * thread and its connection indefinitely.
+ * Each request is handled on a thread of its own: a virtual thread when the JDK has them, or a pooled platform
+ * thread otherwise. Programs that start a server themselves should run with -Dsun.net.httpserver.nodelay=true, or
+ * small responses are slowed down by about 40 ms.
+ * @author Raymond Gillies
+ */
+public final class TableServer {
+
+	private static final String SEED_HEADER = "X-Randomizer-Seed";
+	// Without TCP_NODELAY, a short chunked response waits on the client's delayed acknowledgement, about 40 ms. The
+	// JDK reads it once for every HttpServer in the process, so it is left to whoever launches the server to set
+	static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+	static final int DEFAULT_MAX_OUTPUTS = 1_000_000;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final RandomPool pool;
+	private final Log log;
+	private final int maxOutputs;
+	// Exporters hold a large buffer each, so they are kept and reused rather than made for every request
+	private final ConcurrentLinkedQueue<ResultExporter> exporters = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean stopped = new AtomicBoolean();
+	private final CountDownLatch stoppedLatch = new CountDownLatch(1);
+
+	/**
+	 * Binds a server to address. It does not answer requests until start() is called.
+	 * @param pool the pool to draw from
+	 * @param log the log to write errors to
+	 * @param address the address to listen on; port 0 picks any free port
+	 * @param maxOutputs the most outputs one request may ask for, across all of its tables
+	 * @throws IOException if the address could not be bound
+	 */
+	public TableServer(RandomPool pool, Log log, InetSocketAddress address, int maxOutputs) throws IOException {
+		this.pool = pool;
+		this.log = log;
+		this.maxOutputs = maxOutputs;
+		server = HttpServer.create(address, 0);
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.createContext("/tables", exchange -> handle(exchange, "/tables", this::listTables));
+		server.createContext("/randomize", exchange -> handle(exchange, "/randomize", this::randomize));
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests, waiting up to delay seconds for the ones being answered to finish.
+	 * @param delay the longest to wait, in seconds
+	 */
+	public void stop(int delay) {
+		if(!stopped.compareAndSet(false, true)) return;
+		server.stop(delay);
+		executor.shutdown();
+		stoppedLatch.countDown();
+	}
+
+	/**
+	 * Blocks until stop() is called.
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public void awaitStop() throws InterruptedException {
+		stoppedLatch.await();
+	}
+
+	/**
+	 * @return the address the server is listening on
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	/**
+	 * Creates the executor that requests are handled on. Virtual threads are only available from Java 21, so the
+	 * factory for them is looked up by name; on older JDKs a cached pool of daemon threads is used instead.
+	 * @return an executor that runs each request on its own thread
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(ReflectiveOperationException e) {
+			AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "Table server " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private interface Handler {
+		void handle(HttpExchange exchange) throws IOException, CommandLine.UsageException;
+	}
+
+	/**
+	 * Answers a request with handler, turning anything that goes wrong into an error response.
+	 */
+	private void handle(HttpExchange exchange, String path, Handler handler) {
+		try {
+			if(!exchange.getRequestURI().getPath().equals(path)) {
+				sendError(exchange, 404, "Not found");
+			} else if(!exchange.getRequestMethod().equals("GET")) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				sendError(exchange, 405, "Only GET is supported");
+			} else {
+				handler.handle(exchange);
+			}
+		} catch(CommandLine.UsageException e) {
+			sendError(exchange, 400, e.getMessage());
+		} catch(IOException | RuntimeException e) {
+			// Usually the client went away; if the response has not started, it is told what went wrong
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			if(exchange.getResponseCode() == -1) sendError(exchange, 500, "Could not draw outputs: " + e.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void listTables(HttpExchange exchange) throws IOException {
+		String[] names = pool.getTableNames();
+		Arrays.sort(names);
+		StringBuilder text = new StringBuilder();
+		for(String name : names) {
+			text.append(name).append('\t').append(pool.getTableSize(name)).append('\n');
+		}
+		byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(200, body.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private void randomize(HttpExchange exchange) throws IOException, CommandLine.UsageException {
+		ArrayList<RandomTable> tables = new ArrayList<>();
+		boolean unified = false;
+		long seed = ThreadLocalRandom.current().nextLong();
+		String algorithm = Randomizer.DEFAULT_ALGORITHM;
+		ResultExporter.Format format = ResultExporter.Format.TEXT;
+
+		String query = exchange.getRequestURI().getRawQuery();
+		if(query != null) {
+			for(String parameter : query.split("&")) {
+				if(parameter.isEmpty()) continue;
+				int equals = parameter.indexOf('=');
+				String name = decode(equals < 0 ? parameter : parameter.substring(0, equals));
+				String value = equals < 0 ? "" : decode(parameter.substring(equals + 1));
+				switch(name) {
+				case "table":
+					tables.add(CommandLine.parseTable(value, pool));
+					break;
+				case "unified":
+					unified = value.isEmpty() || Boolean.parseBoolean(value);
+					break;
+				case "seed":
+					try {
+						seed = Long.parseLong(value);
+					} catch(NumberFormatException e) {
+						throw new CommandLine.UsageException("The seed must be a whole number: " + value);
+					}
+					break;
+				case "algorithm":
+					algorithm = value;
+					break;
+				case "format":
+					try {
+						format = ResultExporter.Format.valueOf(value.toUpperCase(Locale.ROOT));
+					} catch(IllegalArgumentException e) {
+						throw new CommandLine.UsageException("Unknown format: " + value);
+					}
+					break;
+				default:
+					throw new CommandLine.UsageException("Unknown parameter: " + name);
+				}
+			}
+		}
+		if(tables.isEmpty()) throw new CommandLine.UsageException("No tables given");
+		CommandLine.checkCounts(tables, unified);
+		checkTotal(tables, unified);
+		Randomizer rand;
+		try {
+			rand = new Randomizer(algorithm, seed);
+		} catch(IllegalArgumentException e) {
+			throw new CommandLine.UsageException("Unknown algorithm: " + algorithm);
+		}
+
+		exchange.getResponseHeaders().set("Content-Type",
+				format == ResultExporter.Format.CSV ? "text/csv; charset=utf-8" : "text/plain; charset=utf-8");
+		exchange.getResponseHeaders().set(SEED_HEADER, Long.toString(seed));
+		// A length of 0 sends the body in chunks, as it is written
+		exchange.sendResponseHeaders(200, 0);
+		ResultExporter exporter = exporters.poll();
+		if(exporter == null) exporter = new ResultExporter();
+		try(OutputStream out = exchange.getResponseBody()) {
+			exporter.export(rand.stream(tables, unified).iterator(), Channels.newChannel(out), format);
+		} finally {
+			exporters.offer(exporter);
+		}
+	}
+
+	/**
+	 * Checks that the request does not ask for more than maxOutputs outputs in all.
+	 * @throws CommandLine.UsageException if it asks for too many
+	 */
+	private void checkTotal(ArrayList<RandomTable> tables, boolean unified) throws CommandLine.UsageException {
+		long total = 0;
+		for(RandomTable table : tables) {
+			total += table.getNumOutputs();
+			// The first table's count applies to the combined table
+			if(unified) break;
+		}
+		if(total > maxOutputs) {
+			throw new CommandLine.UsageException("Too many outputs: " + total + " were asked for, but at most " + maxOutputs + " can be drawn per request");
+		}
+	}
+
+	private static String decode(String text) throws CommandLine.UsageException {
+		try {
+			return URLDecoder.decode(text, StandardCharsets.UTF_8);
+		} catch(IllegalArgumentException e) {
+			throw new CommandLine.UsageException("Badly encoded parameter: " + text);
+		}
+	}
+
+	private void sendError(HttpExchange exchange, int code, String message) {
+		try {
+			byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(code, body.length);
+			exchange.getResponseBody().write(body);
+		} catch(IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package randomizer;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable version of one table in a RandomPool. Editing a table never changes a snapshot; the pool
+ * publishes a new snapshot with a higher version number instead, so snapshots can be shared by reference
+ * between the pool, the picker and the randomizer without being copied.
+ * @author Raymond Gillies
+ */
+public final class TableSnapshot extends AbstractList<String> 
+							implements RandomAccess {
+	
+	private final String name;
+	private final String[] entries;
+	private final AliasTable aliasTable;
+	private final long version;
+	private final long lastModified;
+	// Worked out the first time it is asked for; two threads may both work it out, but they get the same answer
+	private volatile TableInfo info;
+	
+	/**
+	 * @param name name of the table
+	 * @param entries the table's entries; kept by reference, so the array must not be changed afterwards
+	 * @param weights the weight of each entry, or null if every entry is equally likely
+	 * @param version the version number given to this snapshot by its pool
+	 * @param lastModified when the table was given these contents, in milliseconds since the epoch
+	 */
+	TableSnapshot(String name, String[] entries, double[] weights, long version, long lastModified) {
+		this.name = name;
+		this.entries = entries;
+		this.aliasTable = weights == null ? null : new AliasTable(weights);
+		this.version = version;
+		this.lastModified = lastModified;
+	}
+	
+	/**
+	 * Creates a snapshot from a list of entries and, optionally, their weights. Used when loading.
+	 */
+	static TableSnapshot of(String name, List<String> entries, double[] weights, long version, long lastModified) {
+		return new TableSnapshot(name, entries.toArray(new String[entries.size()]), weights, version, lastModified);
+	}
+	
+	@Override
+	public String get(int index) {
+		return entries[index];
+	}
+
+	@Override
+	public int size() {
+		return entries.length;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return the version number of this snapshot; a later edit of the same table always has a higher one
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * @return when the table was given these contents, in milliseconds since the epoch
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+	
+	/**
+	 * Returns this snapshot's entry count, size in bytes and number of distinct entries. The first call goes through
+	 * every entry; later calls return the same TableInfo.
+	 * @return facts about this snapshot
+	 */
+	public TableInfo getInfo() {
+		TableInfo measured = info;
+		if(measured == null) {
+			measured = TableInfo.of(this);
+			info = measured;
+		}
+		return measured;
+	}
+	
+	/**
+	 * @return the alias table holding this table's entry weights, or null if every entry is equally likely
+	 */
+	public AliasTable getAliasTable() {
+		return aliasTable;
+	}
+	
+	public boolean isWeighted() {
+		return aliasTable != null;
+	}
+	
+	/**
+	 * @param index index of the entry
+	 * @return the weight of the entry at the passed index; 1 if the table is unweighted
+	 */
+	public double getWeight(int index) {
+		return aliasTable == null ? 1.0 : aliasTable.getWeight(index);
+	}
+}
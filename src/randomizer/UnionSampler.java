@@ -0,0 +1,207 @@
+package randomizer;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws entries uniformly from the union of several tables, as if they had been joined into one large table,
+ * without copying any of them. Each draw picks a global position and maps it back to a (table, entry) pair by
+ * binary search over the running totals of the table sizes, so a draw costs O(log t) for t tables. Weighted
+ * entries count as many times as their weight, and an unweighted entry counts once.
+ * @author Raymond Gillies
+ */
+public class UnionSampler {
+	
+	private final List<RandomTable> tables;
+	private final boolean allowRepeats;
+	private final int numDraws;
+	private final RandomGenerator rand;
+	private int drawn;
+	
+	// Unweighted union: running total of table sizes, drawn from by global position
+	private int[] sizePrefix;
+	private UniqueIndexSampler positionSampler;
+	
+	// Weighted union: running total of table weights, drawn from by global weight
+	private double[] massPrefix;
+	private FenwickTree remainingMass;
+	private IndexSampler[] tableSamplers;
+	private int[] entriesLeft;
+	
+	/**
+	 * @param tables the tables to draw from
+	 * @param allowRepeats whether the same entry may be drawn more than once
+	 * @param numDraws the number of draws wanted; without repeats this is capped at the size of the union
+	 * @param rand the source of randomness
+	 */
+	public UnionSampler(List<RandomTable> tables, boolean allowRepeats, int numDraws, RandomGenerator rand) {
+		this.tables = tables;
+		this.allowRepeats = allowRepeats;
+		this.rand = rand;
+		this.drawn = 0;
+		
+		int t = tables.size();
+		boolean weighted = false;
+		sizePrefix = new int[t + 1];
+		for(int i = 0; i < t; i++) {
+			sizePrefix[i + 1] = Math.addExact(sizePrefix[i], tables.get(i).size());
+			if(tables.get(i).isWeighted()) weighted = true;
+		}
+		int unionSize = sizePrefix[t];
+		if(unionSize == 0) numDraws = 0;
+		else if(!allowRepeats) numDraws = Math.min(numDraws, unionSize);
+		this.numDraws = numDraws;
+		
+		if(weighted) {
+			double[] masses = new double[t];
+			massPrefix = new double[t + 1];
+			for(int i = 0; i < t; i++) {
+				RandomTable table = tables.get(i);
+				masses[i] = table.isWeighted() ? table.getAliasTable().getTotalWeight() : table.size();
+				massPrefix[i + 1] = massPrefix[i] + masses[i];
+			}
+			if(!allowRepeats) {
+				remainingMass = new FenwickTree(masses);
+				tableSamplers = new IndexSampler[t];
+				entriesLeft = new int[t];
+				for(int i = 0; i < t; i++) {
+					entriesLeft[i] = tables.get(i).size();
+				}
+			}
+		} else if(!allowRepeats) {
+			positionSampler = new UniqueIndexSampler(unionSize, numDraws, rand);
+		}
+	}
+	
+	/**
+	 * @return the total number of draws this sampler will make
+	 */
+	public int getNumDraws() {
+		return numDraws;
+	}
+	
+	/**
+	 * @return true if at least one more entry can be drawn, false otherwise
+	 */
+	public boolean hasNext() {
+		return drawn < numDraws;
+	}
+	
+	/**
+	 * Draws the next entry.
+	 * @return the drawn entry, packed as a table index and an entry index; see tableOf and entryOf
+	 * @throws NoSuchElementException if every draw has been made
+	 */
+	public long nextEntry() {
+		if(drawn >= numDraws) throw new NoSuchElementException("All " + numDraws + " entries have been drawn");
+		drawn++;
+		if(massPrefix == null) {
+			int position = allowRepeats ? rand.nextInt(sizePrefix[sizePrefix.length - 1]) : positionSampler.nextIndex();
+			int table = search(sizePrefix, position);
+			return pack(table, position - sizePrefix[table]);
+		}
+		if(allowRepeats) {
+			int table = search(massPrefix, rand.nextDouble() * massPrefix[massPrefix.length - 1]);
+			RandomTable randTable = tables.get(table);
+			int entry = randTable.isWeighted() ? randTable.getAliasTable().next(rand) : rand.nextInt(randTable.size());
+			return pack(table, entry);
+		}
+		// Weighted without repeats: pick a table by the weight it has left, then an entry within it
+		double total = remainingMass.prefixSum(remainingMass.size());
+		int table = total > 0 ? remainingMass.find(rand.nextDouble() * total) : tables.size();
+		if(table >= tables.size() || entriesLeft[table] == 0) {
+			// The running totals have lost weight to rounding, as happens when weights of very different sizes
+			// are added together, so they pointed past the end or at a used-up table. Trying again could do the
+			// same forever, so work out each table's remaining weight afresh and pick from those
+			table = pickTableExactly();
+		}
+		RandomTable randTable = tables.get(table);
+		if(tableSamplers[table] == null) {
+			tableSamplers[table] = randTable.isWeighted()
+					? new WeightedUniqueSampler(randTable.getAliasTable(), rand)
+					: new UniqueIndexSampler(randTable.size(), rand);
+		}
+		int entry = tableSamplers[table].nextIndex();
+		entriesLeft[table]--;
+		remainingMass.add(table, randTable.isWeighted() ? -randTable.getAliasTable().getWeight(entry) : -1.0);
+		return pack(table, entry);
+	}
+	
+	/**
+	 * Works out the weight each table has left from the entries it has not given out yet, rebuilds the running
+	 * totals from them, and picks a table by them in O(t). Always returns a table with entries left.
+	 */
+	private int pickTableExactly() {
+		double[] masses = new double[tables.size()];
+		double total = 0;
+		for(int i = 0; i < masses.length; i++) {
+			RandomTable table = tables.get(i);
+			if(entriesLeft[i] == 0) {
+				masses[i] = 0;
+			} else if(!table.isWeighted()) {
+				masses[i] = entriesLeft[i];
+			} else if(tableSamplers[i] == null) {
+				masses[i] = table.getAliasTable().getTotalWeight();
+			} else {
+				masses[i] = ((WeightedUniqueSampler)tableSamplers[i]).getRemainingWeight();
+			}
+			total += masses[i];
+		}
+		remainingMass = new FenwickTree(masses);
+		double target = rand.nextDouble() * total;
+		int last = -1;
+		for(int i = 0; i < masses.length; i++) {
+			if(entriesLeft[i] == 0) continue;
+			last = i;
+			target -= masses[i];
+			if(target < 0) break;
+		}
+		return last;
+	}
+	
+	/**
+	 * @return the table index of an entry returned by nextEntry
+	 */
+	public static int tableOf(long entry) {
+		return (int)(entry >>> 32);
+	}
+	
+	/**
+	 * @return the index within its table of an entry returned by nextEntry
+	 */
+	public static int entryOf(long entry) {
+		return (int)entry;
+	}
+	
+	private static long pack(int table, int entry) {
+		return ((long)table << 32) | (entry & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * @return the last table whose running total starts at or before position; empty tables are skipped
+	 */
+	private static int search(int[] prefix, int position) {
+		int low = 0;
+		int high = prefix.length - 2;
+		while(low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if(prefix[mid] <= position) low = mid;
+			else high = mid - 1;
+		}
+		return low;
+	}
+	
+	private static int search(double[] prefix, double position) {
+		int low = 0;
+		int high = prefix.length - 2;
+		while(low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if(prefix[mid] <= position) low = mid;
+			else high = mid - 1;
+		}
+		// Rounding can land on the end of a run of empty tables; step back to one that has entries
+		while(low > 0 && prefix[low + 1] == prefix[low]) low--;
+		return low;
+	}
+}
@@ -0,0 +1,129 @@
+package randomizer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws indices from the range [0, n) without replacement. The list being drawn from is never touched;
+ * callers map each returned index back to their own entries. Drawing k indices costs O(k) time and memory,
+ * no matter how large n is.
+ * @author Raymond Gillies
+ */
+public class UniqueIndexSampler implements IndexSampler {
+	
+	// Floyd's algorithm is used when the number of draws is at most 1/FLOYD_RATIO of the range
+	private static final int FLOYD_RATIO = 4;
+	// A plain int[] permutation is used when the number of draws is more than 1/DENSE_RATIO of the range
+	private static final int DENSE_RATIO = 2;
+	
+	private final int range;
+	private final int limit;
+	private final RandomGenerator rand;
+	private int drawn;
+	
+	// Only one of these is used, depending on the strategy picked in the constructor
+	private int[] picked;
+	private int[] dense;
+	private HashMap<Integer, Integer> swaps;
+	
+	/**
+	 * Creates a sampler that will draw exactly numDraws unique indices from [0, range). Knowing the
+	 * number of draws up front lets the sampler choose the cheapest strategy for the job.
+	 * @param range the number of indices to draw from
+	 * @param numDraws the number of indices that will be drawn
+	 * @param rand the source of randomness
+	 * @throws IllegalArgumentException if numDraws is negative or greater than range
+	 */
+	public UniqueIndexSampler(int range, int numDraws, RandomGenerator rand) {
+		if(numDraws < 0 || numDraws > range) {
+			throw new IllegalArgumentException("Cannot draw " + numDraws + " unique indices from " + range);
+		}
+		this.range = range;
+		this.limit = numDraws;
+		this.rand = rand;
+		this.drawn = 0;
+		if((long)numDraws * FLOYD_RATIO <= range) {
+			picked = floyd(range, numDraws, rand);
+		} else if((long)numDraws * DENSE_RATIO > range) {
+			dense = new int[range];
+			for(int i = 0; i < range; i++) dense[i] = i;
+		} else {
+			swaps = new HashMap<>();
+		}
+	}
+	
+	/**
+	 * Creates a sampler that can draw up to range unique indices from [0, range) when the number of draws
+	 * is not known in advance. Uses a sparse Fisher-Yates shuffle, so memory grows with the draws made
+	 * rather than with the range.
+	 * @param range the number of indices to draw from
+	 * @param rand the source of randomness
+	 */
+	public UniqueIndexSampler(int range, RandomGenerator rand) {
+		if(range < 0) throw new IllegalArgumentException("Negative range: " + range);
+		this.range = range;
+		this.limit = range;
+		this.rand = rand;
+		this.drawn = 0;
+		swaps = new HashMap<>();
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return drawn < limit;
+	}
+	
+	/**
+	 * @return the number of indices that can still be drawn
+	 */
+	public int remaining() {
+		return limit - drawn;
+	}
+	
+	@Override
+	public int nextIndex() {
+		if(drawn >= limit) throw new NoSuchElementException("All " + limit + " indices have been drawn");
+		int i = drawn++;
+		if(picked != null) return picked[i];
+		
+		int j = i + rand.nextInt(range - i);
+		if(dense != null) {
+			int result = dense[j];
+			dense[j] = dense[i];
+			return result;
+		}
+		// Sparse Fisher-Yates: only positions that have been swapped are stored in the map
+		Integer atJ = swaps.get(j);
+		Integer atI = swaps.remove(i);
+		if(j != i) swaps.put(j, atI == null ? i : atI);
+		if(j == i) return atI == null ? i : atI;
+		return atJ == null ? j : atJ;
+	}
+	
+	/**
+	 * Uses Floyd's algorithm to pick numDraws distinct indices, then shuffles them so they come out
+	 * in a uniformly random order.
+	 */
+	private static int[] floyd(int range, int numDraws, RandomGenerator rand) {
+		int[] result = new int[numDraws];
+		HashSet<Integer> seen = new HashSet<>(numDraws * 2);
+		int count = 0;
+		for(int j = range - numDraws; j < range; j++) {
+			int t = rand.nextInt(j + 1);
+			if(!seen.add(t)) {
+				seen.add(j);
+				t = j;
+			}
+			result[count++] = t;
+		}
+		for(int i = numDraws - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int temp = result[i];
+			result[i] = result[j];
+			result[j] = temp;
+		}
+		return result;
+	}
+}
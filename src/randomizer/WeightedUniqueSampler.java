@@ -0,0 +1,108 @@
+package randomizer;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws weighted indices without replacement. Each draw picks one of the remaining indices with probability
+ * proportional to its weight. Early draws reuse the alias table and simply reject indices that were already
+ * taken; once half of the total weight is gone, the remaining weights are moved into a Fenwick tree once,
+ * after which each draw costs O(log n). The alias table itself is never rebuilt. If weights of very different sizes
+ * make the tree's running totals lose some of the weight to rounding, that draw is made in O(n) instead and the tree
+ * is rebuilt.
+ * @author Raymond Gillies
+ */
+public class WeightedUniqueSampler implements IndexSampler {
+	
+	private final AliasTable aliasTable;
+	private final RandomGenerator rand;
+	private final HashSet<Integer> taken = new HashSet<>();
+	private double takenWeight;
+	
+	// Only built once rejection sampling would start wasting too many draws
+	private double[] remainingWeights;
+	private FenwickTree tree;
+	private double remainingTotal;
+	
+	/**
+	 * @param aliasTable the precomputed weights to draw from
+	 * @param rand the source of randomness
+	 */
+	public WeightedUniqueSampler(AliasTable aliasTable, RandomGenerator rand) {
+		this.aliasTable = aliasTable;
+		this.rand = rand;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return taken.size() < aliasTable.size();
+	}
+	
+	@Override
+	public int nextIndex() {
+		if(!hasNext()) throw new NoSuchElementException("All " + aliasTable.size() + " indices have been drawn");
+		if(tree == null && takenWeight <= aliasTable.getTotalWeight() / 2) {
+			// At least half of the weight is still available, so this takes two tries or fewer on average
+			while(true) {
+				int index = aliasTable.next(rand);
+				if(taken.add(index)) {
+					takenWeight += aliasTable.getWeight(index);
+					return index;
+				}
+			}
+		}
+		if(tree == null) buildTree();
+		int index = remainingTotal > 0 ? tree.find(rand.nextDouble() * remainingTotal) : remainingWeights.length;
+		if(index >= remainingWeights.length || remainingWeights[index] <= 0) {
+			// The running totals have lost weight to rounding, as happens when weights of very different sizes
+			// are added together, so they pointed past the end or at a spent entry. Trying again could do the same
+			// forever, so pick from the remaining weights themselves and start the tree afresh from them
+			index = pickExactly();
+			buildTree();
+		}
+		tree.add(index, -remainingWeights[index]);
+		remainingTotal -= remainingWeights[index];
+		remainingWeights[index] = 0;
+		taken.add(index);
+		return index;
+	}
+	
+	/**
+	 * @return the total weight of the indices not yet drawn, added up afresh rather than kept as a running total
+	 */
+	double getRemainingWeight() {
+		double total = 0;
+		for(int i = 0; i < aliasTable.size(); i++) {
+			if(!taken.contains(i)) total += aliasTable.getWeight(i);
+		}
+		return total;
+	}
+	
+	/**
+	 * Picks one of the remaining indices by weight in O(n), without the tree. Always returns an index that has not
+	 * been drawn, whatever rounding does to the total.
+	 */
+	private int pickExactly() {
+		double target = rand.nextDouble() * getRemainingWeight();
+		int last = -1;
+		for(int i = 0; i < remainingWeights.length; i++) {
+			if(taken.contains(i)) continue;
+			last = i;
+			target -= aliasTable.getWeight(i);
+			if(target < 0) break;
+		}
+		return last;
+	}
+	
+	private void buildTree() {
+		int n = aliasTable.size();
+		remainingWeights = new double[n];
+		remainingTotal = 0;
+		for(int i = 0; i < n; i++) {
+			if(!taken.contains(i)) remainingWeights[i] = aliasTable.getWeight(i);
+			remainingTotal += remainingWeights[i];
+		}
+		tree = new FenwickTree(remainingWeights);
+	}
+}
@@ -1,178 +1,271 @@
-package randomizer.ui;
-
-import java.util.concurrent.ExecutionException;
-
-import javax.swing.JOptionPane;
-import javax.swing.SwingWorker;
-
-import randomizer.Log;
-import randomizer.RandomPool;
-
-
-/**
- * A class that handles most actions related to the EditorPanel
- * @author Raymond Gillies
- */
-class EditorWorker extends SwingWorker<Void, Void> {
-	
-	/***
-	 * An enumeration that contains all possible jobs that EditorWorker can perform.
-	 * @author Raymond Gillies
-	 */
-	protected enum JobType { DONE, CLEAR, DELETE, SELECT }
-	
-	JobType job;
-	EditorPanel editorInstance;
-	PickerPanel pickerInstance;
-	RandomPool pool;
-	Log log;
-	
-	EditorWorker(EditorPanel editorInstance, PickerPanel pickerInstance, JobType job, RandomPool pool, Log log) {
-		this.editorInstance = editorInstance;
-		this.pickerInstance = pickerInstance;
-		this.job = job;
-		this.pool = pool;
-		this.log = log;
-	}
-	
-	@Override
-	protected Void doInBackground() throws Exception {
-		switch(job) {
-		case CLEAR:
-			editorClearAction();
-			break;
-		case DELETE:
-			editorDeleteAction();
-			break;
-		case DONE:
-			editorDoneAction();
-			break;
-		case SELECT:
-			editorSelectorAction();
-			break;
-		default:
-			throw new IllegalArgumentException();
-		}
-		return null;
-	}
-	
-	@Override
-	protected void done() {
-		log.writeToLog("EditorWorker has finished! (" + job + ")");
-		try {
-			get();
-		} catch (InterruptedException | ExecutionException e) {
-			if(log.isEnabled()) e.printStackTrace(log.getWriter());
-		}
-	}
-	
-	/***
-	 * Attempts to save the currently displayed editor text as a table. If the either text field is blank, the
-	 * user is notified vid JOptionPane and this method returns. If a table with the exact same name already exists,
-	 * the user is prompted to confirm whether or not they'd like to overwrite it. After the table is saved, the
-	 * current list of tables is also saved, the text is cleared, and any relevant components are updated.
-	 * @author Raymond Gillies
-	 */
-	private void editorDoneAction() {
-		int overwrite = -1;
-		
-		log.writeToLog("saving table");
-		// Actions
-		String tableName = editorInstance.getSelectedTableName();
-		String tableText = editorInstance.getSelectedTableText();
-		// Ask user to fill out title field or table
-		if(tableName == null || tableName.isBlank()) {
-			JOptionPane.showMessageDialog(null, "Please enter a title for the table.", "Notification", JOptionPane.WARNING_MESSAGE);
-			return;
-		} else if(tableText.isBlank()) {
-			JOptionPane.showMessageDialog(null, "Please provide at least one entry.", "Notification", JOptionPane.WARNING_MESSAGE);
-			return;
-		}
-		// Ask user if they want to overwrite the table given
-		if(pool.has(tableName)) {
-			overwrite = JOptionPane.showConfirmDialog(editorInstance, "Are you sure you want to overwrite the table '"
-					+ tableName + "'?", "Confirmation", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
-			if(overwrite == JOptionPane.NO_OPTION) return; // If "no" is selected, don't do anything else.
-		}
-		// Save table
-		pool.newTableFromString(tableText, tableName);
-		pool.save();
-		if(overwrite != JOptionPane.YES_OPTION) editorInstance.addToComboBox(tableName);
-		editorInstance.clearFields();
-		pickerInstance.updateMainLabel();
-		pickerInstance.updateRandomizeButton();
-		pickerInstance.updateSelectors();
-	}
-	
-	/***
-	 * Prompt the user via JOptionPane to confirm that they'd like to clear all displayed text.
-	 * If the user selects 'no', nothing happens. If the user selects 'yes', all editable
-	 * text fields are cleared.
-	 * @author Raymond Gillies
-	 */
-	private void editorClearAction() {
-		log.writeToLog("clearing text");
-		int clear = JOptionPane.showConfirmDialog(editorInstance, 
-				"Are you sure you want to clear all current text?", 
-				"Confirmation", 
-				JOptionPane.YES_NO_OPTION, 
-				JOptionPane.QUESTION_MESSAGE);
-		if(clear == JOptionPane.YES_OPTION) {
-			editorInstance.clearFields();
-		}
-		editorInstance.updateDeleteButton();
-		editorInstance.updateClearButton();
-	}
-	
-	/***
-	 * Prompt the user via JOptionPane to confirm that they'd like to delete the currently displayed table.
-	 * If the user selects 'no', nothing happens. If the user selects 'yes', the table is removed from the
-	 * list of tables. The relevant components are then updated.
-	 */
-	private void editorDeleteAction() {
-		log.writeToLog("Deleting table");
-		
-		int delete = JOptionPane.showConfirmDialog(editorInstance, 
-				"Are you sure you want to delete '"
-				+ editorInstance.getSelectedTableName() + "'?", 
-				"Confirmation", 
-				JOptionPane.YES_NO_OPTION,
-				JOptionPane.QUESTION_MESSAGE);
-		if(delete == JOptionPane.YES_OPTION) {
-			pool.deleteTable(editorInstance.getSelectedTableName());
-			editorInstance.removeFromComboBox(editorInstance.getSelectedTableIndex());
-			pool.save();
-			editorInstance.clearFields();
-			pickerInstance.updateMainLabel();
-			pickerInstance.updateRandomizeButton();
-			pickerInstance.updateSelectors();
-			log.writeToLog("Table deleted");
-		}
-	}
-	/***
-	 * Checks to see if the current contents of the editor's combo box are a title of an existing table.
-	 * If it is, the contents of that table are displayed in the text area.
-	 */
-	private void editorSelectorAction() {
-		// Component Validaton
-		if(log.isEnabled()) {
-			log.writeToLog("Selector worker");
-			log.writeToLog("editor: " + editorInstance);
-		}
-		if(editorInstance.getSelectedTableIndex() != -1) {
-			if(log.isEnabled()) {
-				log.writeToLog("Item is selected");
-				log.writeToLog("Has?: " + pool.has(editorInstance.getSelectedTableName()));
-			}
-			StringBuilder resultBuilder = new StringBuilder();
-			for(String str : pool.getTable(editorInstance.getSelectedTableName())) {
-				resultBuilder.append(str);
-				resultBuilder.append('\n');
-			}
-			editorInstance.setTextboxText(resultBuilder.toString());
-		}
-		editorInstance.updateDeleteButton();
-		editorInstance.updateClearButton();
-	}
-	
-}
+package randomizer.ui;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import randomizer.EditorJobEvent;
+import randomizer.ImportReport;
+import randomizer.Log;
+import randomizer.RandomPool;
+
+
+/**
+ * A class that handles most actions related to the EditorPanel
+ * @author Raymond Gillies
+ */
+class EditorWorker extends SwingWorker<Void, Void> {
+	
+	/***
+	 * An enumeration that contains all possible jobs that EditorWorker can perform.
+	 * @author Raymond Gillies
+	 */
+	protected enum JobType { DONE, CLEAR, DELETE, SELECT, IMPORT }
+	
+	JobType job;
+	EditorPanel editorInstance;
+	RandomPool pool;
+	Log log;
+	Path importFile;
+	
+	EditorWorker(EditorPanel editorInstance, JobType job, RandomPool pool, Log log) {
+		this.editorInstance = editorInstance;
+		this.job = job;
+		this.pool = pool;
+		this.log = log;
+	}
+	
+	/**
+	 * Creates a worker that imports the passed file as a table.
+	 */
+	EditorWorker(EditorPanel editorInstance, Path importFile, RandomPool pool, Log log) {
+		this(editorInstance, JobType.IMPORT, pool, log);
+		this.importFile = importFile;
+	}
+	
+	@Override
+	protected Void doInBackground() throws Exception {
+		EditorJobEvent event = new EditorJobEvent(job.name());
+		event.begin();
+		boolean succeeded = false;
+		try {
+			runJob();
+			succeeded = true;
+		} finally {
+			event.finish(succeeded);
+		}
+		return null;
+	}
+	
+	/**
+	 * Does the job this worker was made for.
+	 */
+	private void runJob() throws Exception {
+		switch(job) {
+		case CLEAR:
+			editorClearAction();
+			break;
+		case DELETE:
+			editorDeleteAction();
+			break;
+		case DONE:
+			editorDoneAction();
+			break;
+		case SELECT:
+			editorSelectorAction();
+			break;
+		case IMPORT:
+			editorImportAction();
+			break;
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+	
+	@Override
+	protected void done() {
+		log.writeToLog("EditorWorker has finished! (" + job + ")");
+		try {
+			get();
+		} catch (InterruptedException | ExecutionException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+		}
+	}
+	
+	/***
+	 * Attempts to save the currently displayed editor text as a table. If the either text field is blank, the
+	 * user is notified vid JOptionPane and this method returns. If a table with the exact same name already exists,
+	 * the user is prompted to confirm whether or not they'd like to overwrite it. After the table is saved, the
+	 * table is saved in the background, the text is cleared, and any relevant components are updated.
+	 * @author Raymond Gillies
+	 */
+	private void editorDoneAction() {
+		int overwrite = -1;
+		
+		log.writeToLog("saving table");
+		// Actions
+		String tableName = editorInstance.getSelectedTableName();
+		String tableText = editorInstance.getSelectedTableText();
+		// Ask user to fill out title field or table
+		if(tableName == null || tableName.isBlank()) {
+			JOptionPane.showMessageDialog(null, "Please enter a title for the table.", "Notification", JOptionPane.WARNING_MESSAGE);
+			return;
+		} else if(tableText.isBlank()) {
+			JOptionPane.showMessageDialog(null, "Please provide at least one entry.", "Notification", JOptionPane.WARNING_MESSAGE);
+			return;
+		}
+		// Ask user if they want to overwrite the table given
+		if(pool.has(tableName)) {
+			overwrite = JOptionPane.showConfirmDialog(editorInstance, "Are you sure you want to overwrite the table '"
+					+ tableName + "'?", "Confirmation", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+			if(overwrite == JOptionPane.NO_OPTION) return; // If "no" is selected, don't do anything else.
+		}
+		// Save table
+		pool.newTableFromString(tableText, tableName);
+		pool.saveLater();
+		editorInstance.clearFields();
+	}
+	
+	/***
+	 * Imports importFile as a table, one entry per line, without loading its text into the editor. The table is
+	 * named after the text in the combo box, or after the file if the combo box is blank. As with Done, the user
+	 * is asked before an existing table is overwritten, and the relevant components are updated afterwards.
+	 */
+	private void editorImportAction() {
+		if(Files.isDirectory(importFile)) {
+			editorImportDirectoryAction();
+			return;
+		}
+		int overwrite = -1;
+		
+		log.writeToLog("importing table");
+		String tableName = editorInstance.getSelectedTableName();
+		if(tableName == null || tableName.isBlank()) {
+			tableName = importFile.getFileName().toString();
+			int extension = tableName.lastIndexOf('.');
+			if(extension > 0) tableName = tableName.substring(0, extension);
+		}
+		if(pool.has(tableName)) {
+			overwrite = JOptionPane.showConfirmDialog(editorInstance, "Are you sure you want to overwrite the table '"
+					+ tableName + "'?", "Confirmation", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+			if(overwrite == JOptionPane.NO_OPTION) return;
+		}
+		try {
+			pool.importTable(importFile, tableName);
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			JOptionPane.showMessageDialog(editorInstance, "Could not import " + importFile.getFileName() + ":\n" 
+					+ e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		pool.saveLater();
+		editorInstance.clearFields();
+	}
+	
+	/***
+	 * Imports every .txt and .csv file in the importFile folder as a table, then tells the user how many were
+	 * imported and which files could not be. The relevant components are updated afterwards.
+	 */
+	private void editorImportDirectoryAction() {
+		log.writeToLog("importing folder");
+		ImportReport report;
+		try {
+			report = pool.importDirectory(importFile);
+		} catch (IOException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			JOptionPane.showMessageDialog(editorInstance, "Could not import " + importFile + ":\n" + e.getMessage(), 
+					"Error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		editorInstance.clearFields();
+		
+		StringBuilder message = new StringBuilder();
+		message.append(String.format("Imported %d of %d files (%.1f MB in %.1f s).", report.getImportedCount(), 
+				report.getFiles().size(), report.getImportedBytes() / 1e6, report.getNanos() / 1e9));
+		int listed = 0;
+		for(ImportReport.FileResult file : report.getFiles()) {
+			if(file.getError() == null) continue;
+			if(listed++ == 10) {
+				message.append("\n...and ").append(report.getFailedCount() - 10).append(" more.");
+				break;
+			}
+			message.append("\n").append(importFile.relativize(file.getFile())).append(": ").append(file.getError().getMessage());
+		}
+		if(report.getSaveError() != null) {
+			message.append("\n\nThe imported tables could not be saved:\n").append(report.getSaveError().getMessage());
+		}
+		boolean problems = report.getFailedCount() > 0 || report.getSaveError() != null;
+		JOptionPane.showMessageDialog(editorInstance, message.toString(), "Import", 
+				problems ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+	}
+	
+	/***
+	 * Prompt the user via JOptionPane to confirm that they'd like to clear all displayed text.
+	 * If the user selects 'no', nothing happens. If the user selects 'yes', all editable
+	 * text fields are cleared.
+	 * @author Raymond Gillies
+	 */
+	private void editorClearAction() {
+		log.writeToLog("clearing text");
+		int clear = JOptionPane.showConfirmDialog(editorInstance, 
+				"Are you sure you want to clear all current text?", 
+				"Confirmation", 
+				JOptionPane.YES_NO_OPTION, 
+				JOptionPane.QUESTION_MESSAGE);
+		if(clear == JOptionPane.YES_OPTION) {
+			editorInstance.clearFields();
+		}
+		editorInstance.updateDeleteButton();
+		editorInstance.updateClearButton();
+	}
+	
+	/***
+	 * Prompt the user via JOptionPane to confirm that they'd like to delete the currently displayed table.
+	 * If the user selects 'no', nothing happens. If the user selects 'yes', the table is removed from the
+	 * list of tables. The relevant components are then updated.
+	 */
+	private void editorDeleteAction() {
+		log.writeToLog("Deleting table");
+		
+		int delete = JOptionPane.showConfirmDialog(editorInstance, 
+				"Are you sure you want to delete '"
+				+ editorInstance.getSelectedTableName() + "'?", 
+				"Confirmation", 
+				JOptionPane.YES_NO_OPTION,
+				JOptionPane.QUESTION_MESSAGE);
+		if(delete == JOptionPane.YES_OPTION) {
+			pool.deleteTable(editorInstance.getSelectedTableName());
+			pool.saveLater();
+			editorInstance.clearFields();
+			log.writeToLog("Table deleted");
+		}
+	}
+	/***
+	 * Checks to see if the current contents of the editor's combo box are a title of an existing table.
+	 * If it is, the contents of that table are displayed in the text area.
+	 */
+	private void editorSelectorAction() {
+		// Component Validaton
+		if(log.isEnabled()) {
+			log.writeToLog("Selector worker");
+			log.writeToLog("editor: " + editorInstance);
+		}
+		if(editorInstance.getSelectedTableIndex() != -1) {
+			if(log.isEnabled()) {
+				log.writeToLog("Item is selected");
+				log.writeToLog("Has?: " + pool.has(editorInstance.getSelectedTableName()));
+			}
+			editorInstance.setTextboxText(pool.textFromTable(editorInstance.getSelectedTableName()));
+			editorInstance.showTableInfo(pool.getTableInfo(editorInstance.getSelectedTableName()));
+		} else {
+			editorInstance.showTableInfo(null);
+		}
+		editorInstance.updateDeleteButton();
+		editorInstance.updateClearButton();
+	}
+	
+}
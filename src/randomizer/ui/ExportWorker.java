@@ -0,0 +1,86 @@
+package randomizer.ui;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import randomizer.Log;
+import randomizer.RandomResult;
+import randomizer.ResultExporter;
+
+/**
+ * Exports a result to a file off the event dispatch thread, showing a ProgressMonitor that lets the user cancel.
+ * @author Raymond Gillies
+ */
+class ExportWorker extends SwingWorker<Boolean, Void> {
+	
+	private Component parent;
+	private RandomResult result;
+	private Path file;
+	private ResultExporter.Format format;
+	private ProgressMonitor monitor;
+	private Runnable whenFinished;
+	private Log log;
+	
+	/**
+	 * @param parent the component that the progress monitor and any messages are shown over
+	 * @param result the result to export
+	 * @param file the file to write
+	 * @param format the format to write in
+	 * @param whenFinished run on the event dispatch thread once the background thread has stopped reading the result,
+	 * whether the export finished, failed or was cancelled; may be null
+	 * @param log the program's log
+	 */
+	ExportWorker(Component parent, RandomResult result, Path file, ResultExporter.Format format, Runnable whenFinished, Log log) {
+		this.parent = parent;
+		this.result = result;
+		this.file = file;
+		this.format = format;
+		this.whenFinished = whenFinished;
+		this.log = log;
+		this.monitor = new ProgressMonitor(parent, "Exporting to " + file.getFileName(), null, 0, 100);
+		// Progress is reported in the background; the monitor is only touched here, on the event dispatch thread
+		this.addPropertyChangeListener(e -> {
+			if("progress".equals(e.getPropertyName())) {
+				monitor.setProgress((Integer)e.getNewValue());
+				if(monitor.isCanceled()) cancel(false);
+			}
+		});
+	}
+	
+	@Override
+	protected Boolean doInBackground() throws Exception {
+		try {
+			ResultExporter exporter = new ResultExporter();
+			return exporter.export(result, file, format, (written, total) -> {
+				if(total > 0) setProgress((int)(written * 100 / total));
+				return !isCancelled();
+			});
+		} finally {
+			// done() can run as soon as the worker is cancelled, before this thread stops; this always runs after
+			if(whenFinished != null) SwingUtilities.invokeLater(whenFinished);
+		}
+	}
+	
+	@Override
+	protected void done() {
+		monitor.close();
+		try {
+			if(get()) log.writeToLog("Exported " + result.size() + " outputs to " + file);
+		} catch(CancellationException e) {
+			log.writeToLog("Export to " + file + " cancelled");
+		} catch(InterruptedException | ExecutionException e) {
+			if(log.isEnabled()) e.printStackTrace(log.getWriter());
+			Throwable cause = e.getCause() instanceof IOException ? e.getCause() : e;
+			JOptionPane.showMessageDialog(parent, "The results could not be exported.\n" + cause.getMessage(), 
+					"Export failed", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+}
@@ -1,141 +1,229 @@
-package randomizer.ui;
-
-import java.awt.Dimension;
-import java.awt.Toolkit;
-import java.awt.Window;
-import java.awt.datatransfer.Clipboard;
-import java.awt.datatransfer.StringSelection;
-
-import javax.swing.BoxLayout;
-import javax.swing.DefaultListCellRenderer;
-import javax.swing.JButton;
-import javax.swing.JComponent;
-import javax.swing.JDialog;
-import javax.swing.JLabel;
-import javax.swing.JList;
-import javax.swing.JOptionPane;
-import javax.swing.JPanel;
-import javax.swing.JScrollPane;
-import javax.swing.ListSelectionModel;
-
-import randomizer.Log;
-
-/**
- * A modal dialog that displays the results of randomizing to the end user.
- * @author Raymond Gillies
- */
-@SuppressWarnings("serial")
-class ResultDialog extends JDialog {
-	
-	private final int DIALOG_WIDTH = 400;
-	private final int DIALOG_HEIGHT = 300;
-	
-	private String[] result;
-	
-	private PickerPanel from;
-	
-	private JPanel resultPanel;
-	private JPanel buttonPanel;
-	private JLabel repeatLabel;
-	private JList<String> resultList;
-	private JLabel doneText;
-	private JButton yesButton;
-	private JButton noButton;
-	private JButton copySelectedButton;
-	private JButton copyAllButton;
-	private JScrollPane resultScrollpane;
-	
-	private Log log;
-	
-	public ResultDialog(PickerPanel from, Window to, String[] result) {
-		super(to, "Randomizer Results", JDialog.ModalityType.DOCUMENT_MODAL);
-		this.result = result;
-		this.from = from;
-		makeFrame();
-		this.setLocationRelativeTo(to);
-		this.pack();
-	}
-	
-	/**
-	 * Creates the main JFrame of this JDialog and sets it as the content pane
-	 */
-	private void makeFrame() {
-		resultPanel = new JPanel();
-		buttonPanel = new JPanel();
-		repeatLabel = new JLabel("Would you like to repeat using the same settings?");
-		doneText = new JLabel("The Randomizer produced the following output:");
-		yesButton = new JButton("Yes");
-		noButton = new JButton("No");
-		copySelectedButton = new JButton("Copy Selected");
-		copyAllButton = new JButton("Copy All");
-		
-		resultList = new JList<String>(result);
-		resultList.setSelectionMode(ListSelectionModel.SINGLE_INTERVAL_SELECTION);
-		resultList.setLayoutOrientation(JList.VERTICAL);
-		DefaultListCellRenderer renderer = (DefaultListCellRenderer)resultList.getCellRenderer();
-		renderer.setHorizontalAlignment(JLabel.CENTER);
-		resultScrollpane = new JScrollPane(resultList);
-
-		yesButton.addActionListener(e -> {
-			this.dispose();
-			from.pickerGoAction();
-		});
-		
-		noButton.addActionListener(e -> {
-			this.dispose();
-		});
-		
-		copySelectedButton.addActionListener(e -> {
-			try {
-				String str = String.join("\n", resultList.getSelectedValuesList());
-				Clipboard c = Toolkit.getDefaultToolkit().getSystemClipboard();
-				StringSelection toCopy = new StringSelection(str);
-				c.setContents(toCopy, null);
-			} catch (Error err) {
-				JOptionPane.showMessageDialog(this, "An error occured.\n" + err);
-			}
-		});
-		copySelectedButton.setEnabled(false);
-		
-		copyAllButton.addActionListener(e -> {
-			try {
-				String str = String.join("\n", result);
-				Clipboard c = Toolkit.getDefaultToolkit().getSystemClipboard();
-				StringSelection toCopy = new StringSelection(str);
-				c.setContents(toCopy, null);
-			} catch (Error err) {
-				JOptionPane.showMessageDialog(this, "An error occured.\n" + err);
-				log.writeToLog(err.toString());
-			}
-		});
-		
-		resultList.addListSelectionListener(e -> {
-			if(!e.getValueIsAdjusting()) {
-				if(resultList.getSelectedIndex() == -1) {
-					copySelectedButton.setEnabled(false);
-				} else {
-					copySelectedButton.setEnabled(true);
-				}
-			}
-		});
-		
-		this.setPreferredSize(new Dimension(DIALOG_WIDTH, DIALOG_HEIGHT));
-		resultScrollpane.setPreferredSize(new Dimension(Short.MAX_VALUE, Short.MAX_VALUE));
-		
-		buttonPanel.add(yesButton);
-		buttonPanel.add(noButton);
-		buttonPanel.add(copySelectedButton);
-		buttonPanel.add(copyAllButton);
-		resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.Y_AXIS));
-		resultPanel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
-		repeatLabel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
-		buttonPanel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
-		doneText.setAlignmentX(JComponent.CENTER_ALIGNMENT);
-		
-		resultPanel.add(doneText);
-		resultPanel.add(resultScrollpane);
-		resultPanel.add(repeatLabel);
-		resultPanel.add(buttonPanel);
-		this.setContentPane(resultPanel);
-	}
-}
+package randomizer.ui;
+
+import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.datatransfer.Clipboard;
+import java.io.File;
+
+import javax.swing.BoxLayout;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import randomizer.Log;
+import randomizer.RandomResult;
+import randomizer.ResultExporter;
+
+/**
+ * A modal dialog that displays the results of randomizing to the end user.
+ * @author Raymond Gillies
+ */
+@SuppressWarnings("serial")
+class ResultDialog extends JDialog {
+	
+	private final int DIALOG_WIDTH = 480;
+	private final int DIALOG_HEIGHT = 300;
+	
+	private RandomResult result;
+	
+	private PickerPanel from;
+	
+	private JPanel resultPanel;
+	private JPanel buttonPanel;
+	private JLabel repeatLabel;
+	private JList<String> resultList;
+	private JLabel doneText;
+	private JPanel seedPanel;
+	private JLabel seedLabel;
+	private JTextField seedField;
+	private JButton yesButton;
+	private JButton noButton;
+	private JButton copySelectedButton;
+	private JButton copyAllButton;
+	private JButton exportButton;
+	private JScrollPane resultScrollpane;
+	private ExportWorker exportWorker;
+	// Set once the result is on the clipboard, where it has to stay unchanged
+	private boolean copied;
+	
+	private Log log;
+	
+	public ResultDialog(PickerPanel from, Window to, RandomResult result, Log log) {
+		super(to, "Randomizer Results", JDialog.ModalityType.DOCUMENT_MODAL);
+		this.result = result;
+		this.from = from;
+		this.log = log;
+		makeFrame();
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+		this.setLocationRelativeTo(to);
+		this.pack();
+	}
+	
+	/**
+	 * Creates the main JFrame of this JDialog and sets it as the content pane
+	 */
+	private void makeFrame() {
+		resultPanel = new JPanel();
+		buttonPanel = new JPanel();
+		repeatLabel = new JLabel("Would you like to repeat using the same settings?");
+		doneText = new JLabel("The Randomizer produced the following output:");
+		yesButton = new JButton("Yes");
+		noButton = new JButton("No");
+		copySelectedButton = new JButton("Copy Selected");
+		copyAllButton = new JButton("Copy All");
+		exportButton = new JButton("Export...");
+		seedPanel = new JPanel();
+		seedLabel = new JLabel("Seed:");
+		seedField = new JTextField(Long.toString(result.getSeed()));
+		
+		// The seed can be selected and copied, but not changed
+		seedField.setEditable(false);
+		seedField.setToolTipText("Generated with " + result.getAlgorithm() + ". Enter this seed in the picker to repeat this result.");
+		seedPanel.add(seedLabel);
+		seedPanel.add(seedField);
+		
+		// Rows are looked up from the result as they are drawn, and every row has the prototype's size,
+		// so opening the dialog takes the same time no matter how large the result is
+		ResultListModel resultModel = new ResultListModel(result);
+		resultList = new JList<String>(resultModel);
+		resultList.setPrototypeCellValue(resultModel.getPrototypeValue());
+		resultList.setSelectionMode(ListSelectionModel.SINGLE_INTERVAL_SELECTION);
+		resultList.setLayoutOrientation(JList.VERTICAL);
+		DefaultListCellRenderer renderer = (DefaultListCellRenderer)resultList.getCellRenderer();
+		renderer.setHorizontalAlignment(JLabel.CENTER);
+		resultScrollpane = new JScrollPane(resultList);
+
+		yesButton.addActionListener(e -> {
+			this.dispose();
+			from.pickerGoAction();
+		});
+		
+		noButton.addActionListener(e -> {
+			this.dispose();
+		});
+		
+		copySelectedButton.addActionListener(e -> {
+			try {
+				int first = resultList.getMinSelectionIndex();
+				int last = resultList.getMaxSelectionIndex();
+				copyToClipboard(first, last + 1);
+			} catch (Error err) {
+				JOptionPane.showMessageDialog(this, "An error occured.\n" + err);
+			}
+		});
+		copySelectedButton.setEnabled(false);
+		
+		copyAllButton.addActionListener(e -> {
+			try {
+				copyToClipboard(0, result.size());
+			} catch (Error err) {
+				JOptionPane.showMessageDialog(this, "An error occured.\n" + err);
+				log.writeToLog(err.toString());
+			}
+		});
+		
+		exportButton.addActionListener(e -> {
+			exportAction();
+		});
+		
+		resultList.addListSelectionListener(e -> {
+			if(!e.getValueIsAdjusting()) {
+				if(resultList.getSelectedIndex() == -1) {
+					copySelectedButton.setEnabled(false);
+				} else {
+					copySelectedButton.setEnabled(true);
+				}
+			}
+		});
+		
+		this.setPreferredSize(new Dimension(DIALOG_WIDTH, DIALOG_HEIGHT));
+		resultScrollpane.setPreferredSize(new Dimension(Short.MAX_VALUE, Short.MAX_VALUE));
+		
+		buttonPanel.add(yesButton);
+		buttonPanel.add(noButton);
+		buttonPanel.add(copySelectedButton);
+		buttonPanel.add(copyAllButton);
+		buttonPanel.add(exportButton);
+		resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.Y_AXIS));
+		resultPanel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
+		repeatLabel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
+		buttonPanel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
+		doneText.setAlignmentX(JComponent.CENTER_ALIGNMENT);
+		seedPanel.setAlignmentX(JComponent.CENTER_ALIGNMENT);
+		
+		resultPanel.add(doneText);
+		resultPanel.add(resultScrollpane);
+		resultPanel.add(seedPanel);
+		resultPanel.add(repeatLabel);
+		resultPanel.add(buttonPanel);
+		this.setContentPane(resultPanel);
+	}
+	
+	/**
+	 * Puts a range of the result on the system clipboard. The text is not built until something is pasted.
+	 * @param start index of the first output to copy
+	 * @param end index after the last output to copy
+	 */
+	private void copyToClipboard(int start, int end) {
+		Clipboard c = Toolkit.getDefaultToolkit().getSystemClipboard();
+		c.setContents(new ResultTransferable(result, start, end), null);
+		copied = true;
+	}
+	
+	/**
+	 * Asks the user for a file, then exports the result to it in the background as plain text or CSV,
+	 * depending on the file type chosen.
+	 */
+	private void exportAction() {
+		JFileChooser chooser = new JFileChooser();
+		FileNameExtensionFilter textFilter = new FileNameExtensionFilter("Text file, one output per line (*.txt)", "txt");
+		FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV file (*.csv)", "csv");
+		chooser.setAcceptAllFileFilterUsed(false);
+		chooser.addChoosableFileFilter(textFilter);
+		chooser.addChoosableFileFilter(csvFilter);
+		chooser.setFileFilter(textFilter);
+		if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+		
+		boolean csv = chooser.getFileFilter() == csvFilter;
+		File file = chooser.getSelectedFile();
+		String extension = csv ? ".csv" : ".txt";
+		if(!file.getName().toLowerCase().endsWith(extension)) file = new File(file.getPath() + extension);
+		if(file.exists()) {
+			int overwrite = JOptionPane.showConfirmDialog(this, "Are you sure you want to overwrite '" + file.getName() + "'?", 
+					"Confirmation", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+			if(overwrite != JOptionPane.YES_OPTION) return;
+		}
+		
+		exportButton.setEnabled(false);
+		exportWorker = new ExportWorker(this, result, file.toPath(), csv ? ResultExporter.Format.CSV : ResultExporter.Format.TEXT, () -> {
+			exportWorker = null;
+			exportButton.setEnabled(true);
+			// If the dialog was closed during the export, the result could not be handed back until now
+			if(!isDisplayable() && !copied) from.recycleResult(result);
+		}, log);
+		exportWorker.execute();
+	}
+	
+	/**
+	 * Closes the dialog, cancelling any export in progress, and hands the result back to the picker so
+	 * that its memory can be reused by the next run. A result that was copied is never handed back, since
+	 * the clipboard reads from it whenever something is pasted.
+	 */
+	@Override
+	public void dispose() {
+		super.dispose();
+		if(exportWorker != null) exportWorker.cancel(false);
+		else if(!copied) from.recycleResult(result);
+	}
+}
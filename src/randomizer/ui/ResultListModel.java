@@ -0,0 +1,48 @@
+package randomizer.ui;
+
+import javax.swing.AbstractListModel;
+
+import randomizer.RandomResult;
+
+/**
+ * A read-only ListModel over a RandomResult. Nothing is copied; each row's text is looked up only when the
+ * JList asks for it, which it only does for rows that are on screen.
+ * @author Raymond Gillies
+ */
+@SuppressWarnings("serial")
+class ResultListModel extends AbstractListModel<String> {
+	
+	// How many rows to look at when picking a prototype row to size every cell by
+	private static final int PROTOTYPE_SAMPLE_SIZE = 100;
+	
+	private RandomResult result;
+	
+	ResultListModel(RandomResult result) {
+		this.result = result;
+	}
+	
+	@Override
+	public int getSize() {
+		return result.size();
+	}
+
+	@Override
+	public String getElementAt(int index) {
+		return result.get(index);
+	}
+	
+	/**
+	 * Picks the longest of the first few rows to use as the list's prototype cell value, so that the list can give
+	 * every cell the same size without measuring them all.
+	 * @return the longest of the first rows, or a single space if there are no rows
+	 */
+	String getPrototypeValue() {
+		String prototype = " ";
+		int sample = Math.min(getSize(), PROTOTYPE_SAMPLE_SIZE);
+		for(int i = 0; i < sample; i++) {
+			String row = getElementAt(i);
+			if(row != null && row.length() > prototype.length()) prototype = row;
+		}
+		return prototype;
+	}
+}
@@ -0,0 +1,166 @@
+package randomizer.ui;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import randomizer.RandomResult;
+
+/**
+ * Puts a range of a result on the clipboard without building its text up front. The text, one output per line,
+ * is only produced when a paste target actually asks for it. Besides a plain String, it can be read as a Reader
+ * or as a UTF-8 InputStream, both of which produce the text a row at a time rather than holding it all in memory.
+ * @author Raymond Gillies
+ */
+class ResultTransferable implements Transferable {
+	
+	static final DataFlavor READER_FLAVOR = createFlavor("text/plain;class=java.io.Reader");
+	static final DataFlavor STREAM_FLAVOR = createFlavor("text/plain;charset=UTF-8;class=java.io.InputStream");
+	private static final DataFlavor[] FLAVORS = { DataFlavor.stringFlavor, READER_FLAVOR, STREAM_FLAVOR };
+	
+	private final RandomResult result;
+	private final int start;
+	private final int end;
+	
+	/**
+	 * @param result the result to copy from; it must not be recycled while it is on the clipboard
+	 * @param start index of the first output to copy
+	 * @param end index after the last output to copy
+	 */
+	ResultTransferable(RandomResult result, int start, int end) {
+		this.result = result;
+		this.start = start;
+		this.end = end;
+	}
+	
+	private static DataFlavor createFlavor(String mimeType) {
+		try {
+			return new DataFlavor(mimeType);
+		} catch (ClassNotFoundException e) {
+			// Reader and InputStream are always available
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public DataFlavor[] getTransferDataFlavors() {
+		return FLAVORS.clone();
+	}
+
+	@Override
+	public boolean isDataFlavorSupported(DataFlavor flavor) {
+		for(DataFlavor supported : FLAVORS) {
+			if(supported.equals(flavor)) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+		if(DataFlavor.stringFlavor.equals(flavor)) {
+			StringBuilder builder = new StringBuilder();
+			for(int i = start; i < end; i++) {
+				if(i > start) builder.append('\n');
+				builder.append(result.get(i));
+			}
+			return builder.toString();
+		} else if(READER_FLAVOR.equals(flavor)) {
+			return new ResultReader();
+		} else if(STREAM_FLAVOR.equals(flavor)) {
+			return new ResultInputStream();
+		}
+		throw new UnsupportedFlavorException(flavor);
+	}
+	
+	/**
+	 * Reads the copied outputs, separated by newlines, looking up one output at a time.
+	 */
+	private class ResultReader extends Reader {
+		
+		private int next = start;
+		private String row = "";
+		private int position = 0;
+		
+		/**
+		 * Moves on to the next row once the current one has been read.
+		 * @return false if every row has been read
+		 */
+		private boolean fill() {
+			while(position >= row.length()) {
+				if(next >= end) return false;
+				row = next > start ? "\n" + result.get(next) : result.get(next);
+				next++;
+				position = 0;
+			}
+			return true;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			if(length == 0) return 0;
+			int read = 0;
+			while(read < length && fill()) {
+				int count = Math.min(length - read, row.length() - position);
+				row.getChars(position, position + count, buffer, offset + read);
+				position += count;
+				read += count;
+			}
+			return read == 0 ? -1 : read;
+		}
+
+		@Override
+		public void close() {
+			next = end;
+			row = "";
+		}
+	}
+	
+	/**
+	 * Reads the copied outputs as UTF-8 bytes, encoding one output at a time.
+	 */
+	private class ResultInputStream extends InputStream {
+		
+		private int next = start;
+		private byte[] row = new byte[0];
+		private int position = 0;
+		
+		private boolean fill() {
+			while(position >= row.length) {
+				if(next >= end) return false;
+				String text = next > start ? "\n" + result.get(next) : result.get(next);
+				row = text.getBytes(StandardCharsets.UTF_8);
+				next++;
+				position = 0;
+			}
+			return true;
+		}
+
+		@Override
+		public int read() {
+			return fill() ? row[position++] & 0xFF : -1;
+		}
+		
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if(length == 0) return 0;
+			int read = 0;
+			while(read < length && fill()) {
+				int count = Math.min(length - read, row.length - position);
+				System.arraycopy(row, position, buffer, offset + read, count);
+				position += count;
+				read += count;
+			}
+			return read == 0 ? -1 : read;
+		}
+		
+		@Override
+		public void close() {
+			next = end;
+			row = new byte[0];
+		}
+	}
+}
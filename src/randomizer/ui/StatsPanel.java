@@ -0,0 +1,146 @@
+package randomizer.ui;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.HierarchyEvent;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import randomizer.Metrics;
+
+/**
+ * Shows how many times each of the program's slower operations has run, how long they took and how much they
+ * handled, as counted by Metrics. The figures are refreshed every second while the panel is showing.
+ * @author Raymond Gillies
+ */
+@SuppressWarnings("serial")
+class StatsPanel extends JPanel {
+
+	private static final int REFRESH_MILLIS = 1000;
+	private static final String[] COLUMNS = {"Operation", "Count", "Total (ms)", "Mean (ms)", "Max (ms)", "Handled"};
+
+	private final StatsTableModel model = new StatsTableModel();
+	private final Timer refresher = new Timer(REFRESH_MILLIS, e -> model.refresh());
+
+	StatsPanel() {
+		super(new BorderLayout(0, 5));
+		JTable table = new JTable(model);
+		table.setFillsViewportHeight(true);
+		table.getTableHeader().setReorderingAllowed(false);
+
+		JButton resetButton = new JButton("Reset");
+		resetButton.setToolTipText("Start counting again from zero");
+		resetButton.addActionListener(e -> {
+			Metrics.reset();
+			model.refresh();
+		});
+		JPanel buttonPane = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		buttonPane.add(resetButton);
+
+		JLabel noteLabel = new JLabel("<html>Counted since the program started. Each operation is also recorded as a JDK Flight Recorder "
+				+ "event in the \"Randomizer\" category when a recording is running.</html>");
+
+		this.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		this.add(noteLabel, BorderLayout.NORTH);
+		this.add(new JScrollPane(table), BorderLayout.CENTER);
+		this.add(buttonPane, BorderLayout.SOUTH);
+
+		// Only refresh while the figures can be seen
+		this.addHierarchyListener(e -> {
+			if((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) return;
+			if(isShowing()) {
+				model.refresh();
+				refresher.start();
+			} else {
+				refresher.stop();
+			}
+		});
+	}
+
+	/**
+	 * One row per Metrics.Operation, holding the figures read at the last refresh.
+	 */
+	private static class StatsTableModel extends AbstractTableModel {
+
+		private final Metrics.Operation[] operations = Metrics.Operation.values();
+		private final Metrics.Stats[] stats = new Metrics.Stats[operations.length];
+
+		StatsTableModel() {
+			read();
+		}
+
+		private void read() {
+			for(int i = 0; i < operations.length; i++) {
+				stats[i] = Metrics.get(operations[i]);
+			}
+		}
+
+		void refresh() {
+			read();
+			fireTableRowsUpdated(0, operations.length - 1);
+		}
+
+		@Override
+		public int getRowCount() {
+			return operations.length;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column) {
+			switch(column) {
+			case 0:
+			case 5:
+				return String.class;
+			case 1:
+				return Long.class;
+			default:
+				return Double.class;
+			}
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			Metrics.Stats rowStats = stats[row];
+			switch(column) {
+			case 0:
+				return operations[row].getLabel();
+			case 1:
+				return rowStats.getCount();
+			case 2:
+				return millis(rowStats.getTotalNanos());
+			case 3:
+				return millis(rowStats.getMeanNanos());
+			case 4:
+				return millis(rowStats.getMaxNanos());
+			case 5:
+				return operations[row].getUnit() == null ? "" : String.format("%,d %s", rowStats.getAmount(), operations[row].getUnit());
+			default:
+				throw new IllegalArgumentException();
+			}
+		}
+
+		/**
+		 * @return nanos in milliseconds, to a hundredth of a millisecond
+		 */
+		private static double millis(long nanos) {
+			return Math.round(nanos / 10_000.0) / 100.0;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package randomizer.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.SwingUtilities;
+
+import randomizer.PoolEvent;
+import randomizer.RandomPool;
+
+/**
+ * A ComboBoxModel holding the name of every table in a RandomPool, in alphabetical order. It listens to the pool
+ * and adds or removes only the names that changed, so the combo box never has to be rebuilt. Events are applied on
+ * the event dispatch thread, and applying one that is already reflected (such as adding a name that is already
+ * listed) does nothing.
+ * @author Raymond Gillies
+ */
+@SuppressWarnings("serial")
+class TableNameComboModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+
+	// Past this many changes at once, the names are sorted again as a whole rather than inserted one at a time
+	private static final int REBUILD_THRESHOLD = 32;
+	private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+	private final ArrayList<String> names = new ArrayList<>();
+	private Object selected;
+
+	/**
+	 * Creates a model listing the tables now in pool, which keeps itself up to date.
+	 * @param pool the pool whose tables are listed
+	 */
+	TableNameComboModel(RandomPool pool) {
+		// Listening first means no change can be missed; any made before the names are read are simply applied twice
+		pool.addPoolListener(events -> SwingUtilities.invokeLater(() -> apply(events)));
+		names.addAll(Arrays.asList(pool.getTableNames()));
+		names.sort(ORDER);
+	}
+
+	@Override
+	public int getSize() {
+		return names.size();
+	}
+
+	@Override
+	public String getElementAt(int index) {
+		return names.get(index);
+	}
+
+	@Override
+	public void setSelectedItem(Object item) {
+		if(item == null ? selected == null : item.equals(selected)) return;
+		selected = item;
+		fireContentsChanged(this, -1, -1);
+	}
+
+	@Override
+	public Object getSelectedItem() {
+		return selected;
+	}
+
+	/**
+	 * Adds the names of added tables and removes the names of removed ones. A replaced table keeps its name, so
+	 * nothing changes for it.
+	 */
+	private void apply(List<PoolEvent> events) {
+		if(events.size() > REBUILD_THRESHOLD) {
+			HashSet<String> current = new HashSet<>(names);
+			for(PoolEvent event : events) {
+				if(event.getType() == PoolEvent.Type.ADDED) current.add(event.getTableName());
+				else if(event.getType() == PoolEvent.Type.REMOVED) current.remove(event.getTableName());
+			}
+			int oldSize = names.size();
+			names.clear();
+			names.addAll(current);
+			names.sort(ORDER);
+			if(oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+			if(!names.isEmpty()) fireIntervalAdded(this, 0, names.size() - 1);
+			return;
+		}
+		for(PoolEvent event : events) {
+			int index = Collections.binarySearch(names, event.getTableName(), ORDER);
+			if(event.getType() == PoolEvent.Type.ADDED && index < 0) {
+				names.add(-index - 1, event.getTableName());
+				fireIntervalAdded(this, -index - 1, -index - 1);
+			} else if(event.getType() == PoolEvent.Type.REMOVED && index >= 0) {
+				names.remove(index);
+				fireIntervalRemoved(this, index, index);
+			}
+		}
+	}
+}